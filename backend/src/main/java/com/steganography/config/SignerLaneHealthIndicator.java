@@ -0,0 +1,73 @@
+package com.steganography.config;
+
+import com.steganography.service.BlockchainService;
+import com.steganography.service.SignerLane;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reports the signer lanes under /actuator/health. Always UP: hiding still works through the
+ * fallback hash when every lane is parked, so an RPC outage must not take the instance out of
+ * service. Parked lanes show up in the details instead. Lanes that have not been used yet are
+ * reported as not initialized.
+ */
+@Component
+public class SignerLaneHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Override
+    public Health health() {
+        // Probing must not build the lanes (credentials and BouncyCastle) before first use
+        Optional<List<SignerLane>> lanes = blockchainService.initializedLanes();
+        if (lanes.isEmpty()) {
+            return Health.up()
+                .withDetail("lanes", "not initialized")
+                .build();
+        }
+
+        List<Map<String, Object>> details = new ArrayList<>();
+        int available = 0;
+        int parked = 0;
+
+        for (SignerLane lane : lanes.get()) {
+            if (lane.isAvailable()) {
+                available++;
+            } else {
+                parked++;
+            }
+
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("address", lane.getAddress());
+            detail.put("available", lane.isAvailable());
+            detail.put("inFlight", lane.getInFlight());
+            detail.put("maxInFlight", lane.getMaxInFlight());
+            detail.put("pending", lane.getPending());
+            detail.put("nextNonce", lane.getNextNonce());
+            detail.put("sent", lane.getSent());
+            detail.put("failed", lane.getFailed());
+            detail.put("nonceResyncs", lane.getNonceResyncs());
+            detail.put("gapRefills", lane.getGapRefills());
+            detail.put("consecutiveFailures", lane.getConsecutiveFailures());
+            if (lane.getLastError() != null) {
+                detail.put("lastError", lane.getLastError());
+            }
+            details.add(detail);
+        }
+
+        return Health.up()
+            .withDetail("available", available)
+            .withDetail("parked", parked)
+            .withDetail("lanes", details)
+            .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.steganography.config;
+
+import com.steganography.service.BlockchainService;
+import com.steganography.util.PngEncodeOptions;
+import com.steganography.util.SteganographyUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Warms ImageIO and the blockchain clients once the application is ready, so the first
+ * /hide request does not pay for plugin scanning and client construction.
+ *
+ * With {@code steganography.warmup.exit-after=true} the warm-up runs synchronously and the
+ * application exits afterwards; the CDS build profile uses this as its training run.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private SteganographyUtil steganographyUtil;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Value("${steganography.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${steganography.warmup.blockchain:true}")
+    private boolean warmBlockchain;
+
+    @Value("${steganography.warmup.exit-after:false}")
+    private boolean exitAfter;
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (exitAfter) {
+            warmUp();
+            log.info("Warm-up finished, exiting as requested");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        } else if (enabled) {
+            Thread thread = new Thread(this::warmUp, "startup-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            // Round-trip a small image through the same read, embed, encode and extract path as /hide
+            BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "PNG", baos);
+
+            byte[] stego = steganographyUtil.hideText(baos.toByteArray(), "warmup", null, PngEncodeOptions.defaults());
+            steganographyUtil.extractText(stego);
+            steganographyUtil.generateSHA256("warmup");
+
+            if (warmBlockchain) {
+                blockchainService.warmUp();
+            }
+            log.info("Startup warm-up completed in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Startup warm-up failed: {}", e.getMessage());
+        }
+    }
+}
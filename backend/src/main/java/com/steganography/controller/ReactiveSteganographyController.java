@@ -0,0 +1,250 @@
+package com.steganography.controller;
+
+import com.steganography.service.AdmissionRejectedException;
+import com.steganography.service.ReactiveSteganographyService;
+import com.steganography.util.PngEncodeOptions;
+import com.steganography.util.SteganographyUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux variant of {@link SteganographyController}, active with the "reactive" profile
+ */
+@RestController
+@RequestMapping("/api/steganography")
+@Profile("reactive")
+public class ReactiveSteganographyController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSteganographyController.class);
+
+    @Autowired
+    private ReactiveSteganographyService steganographyService;
+
+    @Autowired
+    private SteganographyUtil steganographyUtil;
+
+    /**
+     * Hide text in PNG image and store hash on blockchain
+     */
+    @PostMapping("/hide")
+    public Mono<ResponseEntity<Map<String, Object>>> hideText(
+            @RequestPart("image") FilePart imagePart,
+            @RequestPart("text") String text,
+            @RequestPart(value = "key", required = false) String key,
+            @RequestPart(value = "compressionLevel", required = false) String compressionLevel,
+            @RequestPart(value = "filter", required = false) String filter,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength) {
+
+        log.info("Received request to hide text in image: {}", imagePart.filename());
+
+        return Mono.fromCallable(() -> PngEncodeOptions.of(parseLevel(compressionLevel), filter))
+            .flatMap(options -> steganographyService.hideTextInImage(imagePart, contentLength, text, key, options))
+            .map(record -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Text hidden successfully and hash stored on blockchain");
+                response.put("record", record);
+
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(createRejectedResponse(e)))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> Mono.just(createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage())))
+            .onErrorResume(e -> {
+                log.error("Unexpected error while hiding text", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error occurred"));
+            });
+    }
+
+    /**
+     * Extract text from PNG image and verify against blockchain
+     */
+    @PostMapping("/extract")
+    public Mono<ResponseEntity<Map<String, Object>>> extractText(
+            @RequestPart("image") FilePart imagePart,
+            @RequestPart("transactionHash") String transactionHash,
+            @RequestPart(value = "key", required = false) String key,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength) {
+
+        log.info("Received request to extract text from image: {}", imagePart.filename());
+
+        return steganographyService.extractAndVerifyText(imagePart, contentLength, transactionHash, key)
+            .map(extractedText -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Text extracted and verified successfully");
+                response.put("extractedText", extractedText);
+                response.put("verified", true);
+
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(createRejectedResponse(e)))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> Mono.just(createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage())))
+            .onErrorResume(e -> {
+                if (e.getMessage() != null && e.getMessage().contains("integrity verification failed")) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", e.getMessage());
+                    response.put("verified", false);
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(response));
+                }
+                log.error("Unexpected error while extracting text", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+            });
+    }
+
+    /**
+     * Verify text integrity against blockchain without extraction
+     */
+    @PostMapping("/verify")
+    public Mono<ResponseEntity<Map<String, Object>>> verifyText(
+            @RequestPart("text") String text,
+            @RequestPart("transactionHash") String transactionHash) {
+
+        return steganographyService.verifyTextIntegrity(text, transactionHash)
+            .map(verified -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("verified", verified);
+                response.put("message", verified ? "Text integrity verified" : "Text integrity verification failed");
+
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error while verifying text integrity", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to verify text integrity"));
+            });
+    }
+
+    /**
+     * Get all steganography records
+     */
+    @GetMapping("/records")
+    public Mono<ResponseEntity<Map<String, Object>>> getAllRecords() {
+        return steganographyService.getAllRecords()
+            .collectList()
+            .map(records -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("records", records);
+                response.put("count", records.size());
+
+                return ResponseEntity.ok(response);
+            })
+            .onErrorResume(e -> {
+                log.error("Error while fetching records", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch records"));
+            });
+    }
+
+    /**
+     * Get record by ID
+     */
+    @GetMapping("/records/{id}")
+    public Mono<ResponseEntity<Map<String, Object>>> getRecordById(@PathVariable String id) {
+        return steganographyService.getRecordById(id)
+            .map(record -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("record", record);
+
+                return ResponseEntity.ok(response);
+            })
+            .defaultIfEmpty(createErrorResponse(HttpStatus.NOT_FOUND, "Record not found"))
+            .onErrorResume(e -> {
+                log.error("Error while fetching record by ID", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch record"));
+            });
+    }
+
+    /**
+     * Get record by transaction hash
+     */
+    @GetMapping("/records/transaction/{transactionHash}")
+    public Mono<ResponseEntity<Map<String, Object>>> getRecordByTransactionHash(@PathVariable String transactionHash) {
+        return steganographyService.getRecordByTransactionHash(transactionHash)
+            .map(record -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("record", record);
+
+                return ResponseEntity.ok(response);
+            })
+            .defaultIfEmpty(createErrorResponse(HttpStatus.NOT_FOUND, "Record not found for transaction hash"))
+            .onErrorResume(e -> {
+                log.error("Error while fetching record by transaction hash", e);
+                return Mono.just(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch record"));
+            });
+    }
+
+    /**
+     * Generate SHA-256 hash for text (utility endpoint)
+     */
+    @PostMapping("/hash")
+    public Mono<ResponseEntity<Map<String, Object>>> generateHash(@RequestPart("text") String text) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("text", text);
+        response.put("hash", steganographyUtil.generateSHA256(text));
+
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, Object>>> healthCheck() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Steganography service is running (reactive)");
+        response.put("timestamp", System.currentTimeMillis());
+
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    private static Integer parseLevel(String compressionLevel) {
+        if (compressionLevel == null || compressionLevel.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(compressionLevel.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Compression level must be a number");
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> createErrorResponse(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        response.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> createRejectedResponse(AdmissionRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(e.getStatus());
+        if (e.getRetryAfterSeconds() > 0) {
+            builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        }
+        return builder.body(response);
+    }
+}
@@ -1,9 +1,12 @@
 package com.steganography.controller;
 
 import com.steganography.model.SteganographyRecord;
+import com.steganography.service.AdmissionRejectedException;
 import com.steganography.service.SteganographyService;
+import com.steganography.util.PngEncodeOptions;
 import com.steganography.util.SteganographyUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,6 +25,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/steganography")
+@Profile("!reactive")
 public class SteganographyController {
     
     private static final Logger log = LoggerFactory.getLogger(SteganographyController.class);
@@ -38,12 +42,16 @@ public class SteganographyController {
     @PostMapping("/hide")
     public ResponseEntity<Map<String, Object>> hideText(
             @RequestParam("image") @NotNull MultipartFile imageFile,
-            @RequestParam("text") @NotBlank String text) {
+            @RequestParam("text") @NotBlank String text,
+            @RequestParam(value = "key", required = false) String key,
+            @RequestParam(value = "compressionLevel", required = false) Integer compressionLevel,
+            @RequestParam(value = "filter", required = false) String filter) {
         
         try {
             log.info("Received request to hide text in image: {}", imageFile.getOriginalFilename());
             
-            SteganographyRecord record = steganographyService.hideTextInImage(imageFile, text);
+            PngEncodeOptions options = PngEncodeOptions.of(compressionLevel, filter);
+            SteganographyRecord record = steganographyService.hideTextInImage(imageFile, text, key, options);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -52,6 +60,8 @@ public class SteganographyController {
             
             return ResponseEntity.ok(response);
             
+        } catch (AdmissionRejectedException e) {
+            return createRejectedResponse(e);
         } catch (IllegalArgumentException e) {
             return createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (IOException e) {
@@ -68,12 +78,13 @@ public class SteganographyController {
     @PostMapping("/extract")
     public ResponseEntity<Map<String, Object>> extractText(
             @RequestParam("image") @NotNull MultipartFile imageFile,
-            @RequestParam("transactionHash") @NotBlank String transactionHash) {
+            @RequestParam("transactionHash") @NotBlank String transactionHash,
+            @RequestParam(value = "key", required = false) String key) {
         
         try {
             log.info("Received request to extract text from image: {}", imageFile.getOriginalFilename());
             
-            String extractedText = steganographyService.extractAndVerifyText(imageFile, transactionHash);
+            String extractedText = steganographyService.extractAndVerifyText(imageFile, transactionHash, key);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -83,6 +94,8 @@ public class SteganographyController {
             
             return ResponseEntity.ok(response);
             
+        } catch (AdmissionRejectedException e) {
+            return createRejectedResponse(e);
         } catch (IllegalArgumentException e) {
             return createErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (RuntimeException e) {
@@ -237,4 +250,17 @@ public class SteganographyController {
         
         return ResponseEntity.status(status).body(response);
     }
+    
+    private ResponseEntity<Map<String, Object>> createRejectedResponse(AdmissionRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(e.getStatus());
+        if (e.getRetryAfterSeconds() > 0) {
+            builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        }
+        return builder.body(response);
+    }
 }
@@ -0,0 +1,89 @@
+package com.steganography.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Progress of the anchor block follower, with the hashes of recently processed blocks
+ * kept to detect chain reorganisations. The lease fields name the instance currently
+ * allowed to run the follower; the version guards against a follower that lost its lease
+ * mid-poll overwriting its successor's progress.
+ */
+@Document(collection = "anchor_follower_state")
+public class AnchorFollowerState {
+    public static final String DEFAULT_ID = "default";
+
+    @Id
+    private String id = DEFAULT_ID;
+    private long lastBlockNumber = -1;
+    private String lastBlockHash;
+    private Map<String, String> recentBlockHashes = new HashMap<>();
+    private String leaseOwner;
+    private long leaseUntil; // epoch millis
+    @Version
+    private Long version;
+
+    // Constructors
+    public AnchorFollowerState() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getLastBlockNumber() {
+        return lastBlockNumber;
+    }
+
+    public void setLastBlockNumber(long lastBlockNumber) {
+        this.lastBlockNumber = lastBlockNumber;
+    }
+
+    public String getLastBlockHash() {
+        return lastBlockHash;
+    }
+
+    public void setLastBlockHash(String lastBlockHash) {
+        this.lastBlockHash = lastBlockHash;
+    }
+
+    public Map<String, String> getRecentBlockHashes() {
+        return recentBlockHashes;
+    }
+
+    public void setRecentBlockHashes(Map<String, String> recentBlockHashes) {
+        this.recentBlockHashes = recentBlockHashes;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public long getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(long leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
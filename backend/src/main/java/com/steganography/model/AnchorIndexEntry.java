@@ -0,0 +1,91 @@
+package com.steganography.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Anchor transaction seen by the block follower: transaction hash to anchored data hash
+ */
+@Document(collection = "anchor_index")
+public class AnchorIndexEntry {
+    @Id
+    private String id;
+    private String transactionHash;
+    private String dataHash;
+    private String fromAddress;
+    private long blockNumber;
+    private String blockHash;
+    private LocalDateTime indexedAt;
+
+    // Constructors
+    public AnchorIndexEntry() {}
+
+    public AnchorIndexEntry(String transactionHash, String dataHash, String fromAddress,
+                            long blockNumber, String blockHash, LocalDateTime indexedAt) {
+        this.transactionHash = transactionHash;
+        this.dataHash = dataHash;
+        this.fromAddress = fromAddress;
+        this.blockNumber = blockNumber;
+        this.blockHash = blockHash;
+        this.indexedAt = indexedAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public void setTransactionHash(String transactionHash) {
+        this.transactionHash = transactionHash;
+    }
+
+    public String getDataHash() {
+        return dataHash;
+    }
+
+    public void setDataHash(String dataHash) {
+        this.dataHash = dataHash;
+    }
+
+    public String getFromAddress() {
+        return fromAddress;
+    }
+
+    public void setFromAddress(String fromAddress) {
+        this.fromAddress = fromAddress;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public void setBlockNumber(long blockNumber) {
+        this.blockNumber = blockNumber;
+    }
+
+    public String getBlockHash() {
+        return blockHash;
+    }
+
+    public void setBlockHash(String blockHash) {
+        this.blockHash = blockHash;
+    }
+
+    public LocalDateTime getIndexedAt() {
+        return indexedAt;
+    }
+
+    public void setIndexedAt(LocalDateTime indexedAt) {
+        this.indexedAt = indexedAt;
+    }
+}
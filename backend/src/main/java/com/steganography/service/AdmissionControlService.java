@@ -0,0 +1,338 @@
+package com.steganography.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.GcInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for image endpoints. Each request is charged by the estimated size of
+ * its decoded raster against a global memory budget, so a burst of large images queues
+ * (and is eventually shed) instead of exhausting the heap.
+ */
+@Service
+public class AdmissionControlService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    // Permits are counted in KiB so that budgets of several GB still fit in an int
+    private static final long PERMIT_BYTES = 1024;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    // Decoded rasters take at least 4 bytes per pixel (TYPE_INT_ARGB / TYPE_4BYTE_ABGR);
+    // 16-bit PNGs decode to one short per sample, up to 8 bytes per pixel
+    private static final long MIN_BYTES_PER_PIXEL = 4;
+
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    // Signature + IHDR length/type + width + height + bit depth + colour type
+    static final int PNG_HEADER_LENGTH = 26;
+
+    private static final Set<String> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getName)
+        .collect(Collectors.toSet());
+
+    private final BudgetSemaphore semaphore;
+    private final int maxBudgetPermits;
+    private final int minBudgetPermits;
+    private final double heapFraction;
+    private final double workingSetFactor;
+    private final long queueTimeoutMs;
+    private final int maxQueueDepth;
+    private final int retryAfterSeconds;
+
+    private final AtomicLong inFlightPermits = new AtomicLong();
+    private volatile int budgetPermits;
+
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlService(@Value("${steganography.admission.max-budget-mb:512}") long maxBudgetMb,
+                                   @Value("${steganography.admission.min-budget-mb:64}") long minBudgetMb,
+                                   @Value("${steganography.admission.heap-fraction:0.6}") double heapFraction,
+                                   @Value("${steganography.admission.working-set-factor:2.0}") double workingSetFactor,
+                                   @Value("${steganography.admission.queue-timeout-ms:2000}") long queueTimeoutMs,
+                                   @Value("${steganography.admission.max-queue-depth:32}") int maxQueueDepth,
+                                   @Value("${steganography.admission.retry-after-seconds:2}") int retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        this.maxBudgetPermits = toPermits(maxBudgetMb * BYTES_PER_MB);
+        this.minBudgetPermits = Math.min(toPermits(minBudgetMb * BYTES_PER_MB), maxBudgetPermits);
+        this.heapFraction = heapFraction;
+        this.workingSetFactor = workingSetFactor;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.maxQueueDepth = maxQueueDepth;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+
+        this.budgetPermits = maxBudgetPermits;
+        this.semaphore = new BudgetSemaphore(maxBudgetPermits);
+
+        Gauge.builder("steganography.admission.queue.depth", semaphore, Semaphore::getQueueLength)
+            .description("Requests waiting for memory budget")
+            .register(meterRegistry);
+        Gauge.builder("steganography.admission.budget.bytes", this, s -> (double) s.budgetPermits * PERMIT_BYTES)
+            .description("Current memory budget for decoded images")
+            .register(meterRegistry);
+        Gauge.builder("steganography.admission.inflight.bytes", inFlightPermits, p -> (double) p.get() * PERMIT_BYTES)
+            .description("Memory budget charged to running requests")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("steganography.admission.wait")
+            .description("Time spent waiting for memory budget")
+            .register(meterRegistry);
+
+        adjustBudget();
+        log.info("Admission control initialized with budget {} MB (max {} MB)",
+            budgetPermits * PERMIT_BYTES / BYTES_PER_MB, maxBudgetMb);
+    }
+
+    /**
+     * Admits an upload from its first bytes, before the rest of it is read into memory,
+     * blocking in a fair queue until its estimated memory charge fits in the budget. The
+     * upload size stands in for the compressed bytes that will be held during processing.
+     * The returned permit must be closed when processing ends.
+     */
+    public Permit acquire(byte[] headerBytes, long uploadSize) {
+        byte[] header = Arrays.copyOf(headerBytes, Math.min(headerBytes.length, PNG_HEADER_LENGTH));
+        return acquire(estimateCharge(header, uploadSize));
+    }
+
+    /**
+     * Admits a request with an explicit charge in bytes
+     */
+    public Permit acquire(long chargeBytes) {
+        int permits = toPermits(chargeBytes);
+
+        if (permits > maxBudgetPermits) {
+            reject("too_large");
+            throw new AdmissionRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Image dimensions are too large to process", 0);
+        }
+        if (permits > budgetPermits) {
+            reject("low_memory");
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Server is low on memory, please retry later", retryAfterSeconds);
+        }
+        if (semaphore.getQueueLength() >= maxQueueDepth) {
+            reject("queue_full");
+            throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many image requests in progress, please retry later", retryAfterSeconds);
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(permits, queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject("interrupted");
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Request interrupted while waiting for capacity", retryAfterSeconds);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            reject("queue_timeout");
+            throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                "Timed out waiting for processing capacity, please retry later", retryAfterSeconds);
+        }
+
+        inFlightPermits.addAndGet(permits);
+        log.debug("Admitted request charged {} KiB, queue depth {}", permits, semaphore.getQueueLength());
+        return new Permit(permits);
+    }
+
+    /**
+     * Estimates the memory a request needs from the PNG header: the decoded raster scaled by
+     * the working-set factor, plus the compressed bytes held alongside it. Anything that is
+     * not a PNG is rejected here, before a decoder ever sees it.
+     */
+    long estimateCharge(byte[] header, long fileSize) {
+        if (!isPngHeader(header)) {
+            reject("not_png");
+            throw new AdmissionRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Only PNG images are supported", 0);
+        }
+
+        long width = readUnsignedInt(header, 16);
+        long height = readUnsignedInt(header, 20);
+        long bytesPerPixel = bytesPerPixel(header[24] & 0xFF, header[25] & 0xFF);
+        long rasterBytes = saturatedMultiply(saturatedMultiply(width, height), bytesPerPixel);
+        long workingSet = (long) (rasterBytes * workingSetFactor); // saturates at Long.MAX_VALUE
+
+        return workingSet > Long.MAX_VALUE - fileSize ? Long.MAX_VALUE : workingSet + fileSize;
+    }
+
+    /**
+     * Resizes the budget to a fraction of the heap that is not already in use, bounded by
+     * the configured minimum and maximum.
+     */
+    @Scheduled(fixedDelayString = "${steganography.admission.adjust-interval-ms:1000}")
+    public void adjustBudget() {
+        long used = liveHeapBytes();
+
+        // Memory already charged to running requests is part of "used", so add it back
+        long headroom = Runtime.getRuntime().maxMemory() - used + inFlightPermits.get() * PERMIT_BYTES;
+        long target = (long) (Math.max(headroom, 0) * heapFraction);
+
+        int targetPermits = Math.max(minBudgetPermits, Math.min(maxBudgetPermits, toPermits(target)));
+        resizeBudget(targetPermits);
+    }
+
+    /**
+     * Heap occupancy after the most recent garbage collection. Current usage would also count
+     * garbage not yet collected and swing the budget down before every GC. The last GC info
+     * is used rather than the pools' collection usage, which G1 only updates on old-generation
+     * collections. Falls back to current usage before the first collection.
+     */
+    private static long liveHeapBytes() {
+        GcInfo latest = null;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof com.sun.management.GarbageCollectorMXBean) {
+                GcInfo info = ((com.sun.management.GarbageCollectorMXBean) collector).getLastGcInfo();
+                if (info != null && (latest == null || info.getEndTime() > latest.getEndTime())) {
+                    latest = info;
+                }
+            }
+        }
+
+        if (latest == null) {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : latest.getMemoryUsageAfterGc().entrySet()) {
+            if (HEAP_POOLS.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private synchronized void resizeBudget(int targetPermits) {
+        int delta = targetPermits - budgetPermits;
+        if (delta == 0) {
+            return;
+        }
+
+        if (delta > 0) {
+            semaphore.release(delta);
+        } else {
+            semaphore.shrink(-delta);
+        }
+        budgetPermits = targetPermits;
+        log.debug("Admission budget adjusted to {} MB", targetPermits * PERMIT_BYTES / BYTES_PER_MB);
+    }
+
+    private void reject(String reason) {
+        Counter.builder("steganography.admission.rejected")
+            .description("Image requests rejected by admission control")
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        log.warn("Rejected image request: {}", reason);
+    }
+
+    private static boolean isPngHeader(byte[] header) {
+        if (header.length < PNG_HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+            if (header[i] != PNG_SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return header[12] == 'I' && header[13] == 'H' && header[14] == 'D' && header[15] == 'R';
+    }
+
+    /**
+     * Bytes per decoded pixel for an IHDR bit depth and colour type
+     */
+    private static long bytesPerPixel(int bitDepth, int colourType) {
+        int samples = switch (colourType) {
+            case 2 -> 3;  // RGB
+            case 4 -> 2;  // grey + alpha
+            case 6 -> 4;  // RGBA
+            default -> 1; // grey, palette
+        };
+        long sampleBytes = bitDepth == 16 ? 2 : 1;
+        return Math.max(MIN_BYTES_PER_PIXEL, samples * sampleBytes);
+    }
+
+    private static long readUnsignedInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFFL) << 24)
+            | ((bytes[offset + 1] & 0xFFL) << 16)
+            | ((bytes[offset + 2] & 0xFFL) << 8)
+            | (bytes[offset + 3] & 0xFFL);
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high != 0 || low < 0) ? Long.MAX_VALUE : low;
+    }
+
+    private static int toPermits(long bytes) {
+        long permits = (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES;
+        return (int) Math.min(permits, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Budget held by an admitted request
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final int permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                inFlightPermits.addAndGet(-permits);
+                semaphore.release(permits);
+            }
+        }
+    }
+
+    /**
+     * Fair semaphore whose permit count can also be reduced when the budget shrinks
+     */
+    private static final class BudgetSemaphore extends Semaphore {
+
+        BudgetSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void shrink(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
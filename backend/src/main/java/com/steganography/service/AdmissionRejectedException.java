@@ -0,0 +1,29 @@
+package com.steganography.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when an image request cannot be admitted under the current memory budget
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final int retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, String message, int retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Seconds the client should wait before retrying, or 0 if retrying will not help
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
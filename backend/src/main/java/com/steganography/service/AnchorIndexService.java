@@ -0,0 +1,328 @@
+package com.steganography.service;
+
+import com.steganography.model.AnchorFollowerState;
+import com.steganography.model.AnchorIndexEntry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Local index of our anchor transactions, fed by a block follower.
+ *
+ * The follower polls new blocks from the RPC node in batches and records every transaction
+ * sent from one of our signer lanes to the contract address. Lookups are served from the
+ * indexed collection; transactions the follower has not reached yet fall back to RPC. Recent
+ * block hashes are kept so that a chain reorganisation rolls the index back to the fork point.
+ *
+ * Every instance polls, but only the holder of a lease on the follower state document follows
+ * blocks; the others keep track of the head for confirmation counts and take over once the
+ * lease expires.
+ */
+@Service
+public class AnchorIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnchorIndexService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Value("${blockchain.index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${blockchain.index.start-block:-1}")
+    private long startBlock;
+
+    @Value("${blockchain.index.batch-size:100}")
+    private int batchSize;
+
+    @Value("${blockchain.index.reorg-depth:64}")
+    private int reorgDepth;
+
+    @Value("${blockchain.index.min-confirmations:1}")
+    private long minConfirmations;
+
+    @Value("${blockchain.index.lease-ms:30000}")
+    private long leaseMs;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean leader;
+    private volatile long headBlock = -1;
+    private volatile boolean indexesEnsured;
+
+    /**
+     * Returns the data hash anchored by a transaction, from the local index when the
+     * transaction has been indexed with enough confirmations, otherwise from RPC
+     */
+    public String getAnchoredHash(String transactionHash) {
+        if (enabled) {
+            AnchorIndexEntry entry = findByTransactionHash(transactionHash);
+            if (isServable(entry)) {
+                log.debug("Serving anchor {} from local index", transactionHash);
+                return entry.getDataHash();
+            }
+        }
+        return blockchainService.getHashFromBlockchain(transactionHash);
+    }
+
+    /**
+     * Gets an index entry by transaction hash, or null if not indexed
+     */
+    public AnchorIndexEntry findByTransactionHash(String transactionHash) {
+        return mongoTemplate.findOne(transactionQuery(transactionHash), AnchorIndexEntry.class);
+    }
+
+    /**
+     * Whether an index entry may be used instead of asking the RPC node
+     */
+    public boolean isServable(AnchorIndexEntry entry) {
+        return enabled && entry != null && getConfirmations(entry) >= minConfirmations;
+    }
+
+    /**
+     * Confirmation depth of an indexed transaction against the latest head seen by the
+     * follower, or 0 before the first poll
+     */
+    public long getConfirmations(AnchorIndexEntry entry) {
+        long head = headBlock;
+        return head < 0 ? 0 : Math.max(head - entry.getBlockNumber() + 1, 0);
+    }
+
+    /**
+     * Query matching an index entry by transaction hash
+     */
+    public static Query transactionQuery(String transactionHash) {
+        return new Query(Criteria.where("transactionHash").is(transactionHash.toLowerCase()));
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.index.poll-interval-ms:5000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            followBlocks();
+        } catch (Exception e) {
+            log.warn("Anchor block follower poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Processes the next range of blocks up to the current head, if this instance holds the
+     * follower lease
+     */
+    void followBlocks() throws IOException {
+        ensureIndexes();
+
+        Web3j web3j = blockchainService.web3j();
+        long head = web3j.ethBlockNumber().send().getBlockNumber().longValue();
+        headBlock = head;
+
+        AnchorFollowerState state = acquireLease();
+        if (state == null) {
+            return;
+        }
+
+        if (state.getLastBlockNumber() < 0) {
+            state.setLastBlockNumber(startBlock >= 0 ? startBlock - 1 : head - 1);
+            log.info("Anchor block follower starting at block {}", state.getLastBlockNumber() + 1);
+        }
+
+        Set<String> signers = blockchainService.getSignerAddresses();
+        String contract = blockchainService.getContractAddress();
+        long to = Math.min(head, state.getLastBlockNumber() + batchSize);
+
+        for (long number = state.getLastBlockNumber() + 1; number <= to; number++) {
+            EthBlock.Block block = getBlock(web3j, number, true);
+            if (block == null) {
+                break;
+            }
+
+            if (state.getLastBlockHash() != null && !state.getLastBlockHash().equalsIgnoreCase(block.getParentHash())) {
+                rewind(web3j, state);
+                break;
+            }
+
+            for (EthBlock.TransactionResult<?> result : block.getTransactions()) {
+                Transaction transaction = (Transaction) result.get();
+                if (transaction.getFrom() != null && signers.contains(transaction.getFrom().toLowerCase())
+                        && contract.equalsIgnoreCase(transaction.getTo())) {
+                    index(transaction, block);
+                }
+            }
+
+            recordBlock(state, number, block.getHash());
+        }
+
+        try {
+            mongoTemplate.save(state);
+        } catch (OptimisticLockingFailureException e) {
+            leader = false;
+            log.warn("Anchor block follower lease lost during the poll, progress discarded");
+        }
+    }
+
+    private void index(Transaction transaction, EthBlock.Block block) {
+        String input = transaction.getInput();
+        if (input == null || !input.startsWith("0x") || input.length() <= 2) {
+            return;
+        }
+
+        long blockNumber = block.getNumber().longValue();
+        Update update = new Update()
+            .set("dataHash", input.substring(2))
+            .set("fromAddress", transaction.getFrom().toLowerCase())
+            .set("blockNumber", blockNumber)
+            .set("blockHash", block.getHash())
+            .set("indexedAt", LocalDateTime.now());
+
+        mongoTemplate.upsert(transactionQuery(transaction.getHash()), update, AnchorIndexEntry.class);
+        log.info("Indexed anchor transaction {} in block {}", transaction.getHash(), blockNumber);
+    }
+
+    /**
+     * Walks back through the recent block hashes to the last block still on the canonical
+     * chain and drops everything indexed above it
+     */
+    private void rewind(Web3j web3j, AnchorFollowerState state) throws IOException {
+        Map<String, String> recent = state.getRecentBlockHashes();
+        long forkPoint = state.getLastBlockNumber() - reorgDepth;
+        String forkHash = null;
+
+        for (long number = state.getLastBlockNumber(); number > state.getLastBlockNumber() - reorgDepth; number--) {
+            String known = recent.get(Long.toString(number));
+            if (known == null) {
+                break;
+            }
+            EthBlock.Block canonical = getBlock(web3j, number, false);
+            if (canonical != null && known.equalsIgnoreCase(canonical.getHash())) {
+                forkPoint = number;
+                forkHash = known;
+                break;
+            }
+        }
+
+        long removed = mongoTemplate.remove(
+            new Query(Criteria.where("blockNumber").gt(forkPoint)), AnchorIndexEntry.class).getDeletedCount();
+        long fork = forkPoint;
+        recent.keySet().removeIf(key -> Long.parseLong(key) > fork);
+
+        log.warn("Chain reorganisation detected at block {}, rewound to block {} ({} anchors removed)",
+            state.getLastBlockNumber(), forkPoint, removed);
+
+        state.setLastBlockNumber(forkPoint);
+        state.setLastBlockHash(forkHash);
+    }
+
+    private void recordBlock(AnchorFollowerState state, long number, String hash) {
+        state.setLastBlockNumber(number);
+        state.setLastBlockHash(hash);
+
+        Map<String, String> recent = state.getRecentBlockHashes();
+        recent.put(Long.toString(number), hash);
+        recent.keySet().removeIf(key -> Long.parseLong(key) <= number - reorgDepth);
+    }
+
+    /**
+     * Takes or renews the follower lease and returns the follower state, or null while another
+     * instance holds an unexpired lease
+     */
+    private AnchorFollowerState acquireLease() {
+        long now = System.currentTimeMillis();
+        Query query = new Query(Criteria.where("_id").is(AnchorFollowerState.DEFAULT_ID).orOperator(
+            Criteria.where("leaseOwner").is(instanceId),
+            Criteria.where("leaseOwner").is(null),
+            Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update()
+            .set("leaseOwner", instanceId)
+            .set("leaseUntil", now + leaseMs);
+
+        AnchorFollowerState state;
+        try {
+            state = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true).upsert(true), AnchorFollowerState.class);
+        } catch (DuplicateKeyException e) {
+            // The upsert collided with the document another instance holds the lease on
+            state = null;
+        }
+
+        boolean acquired = state != null;
+        if (acquired != leader) {
+            leader = acquired;
+            log.info(acquired ? "Anchor block follower lease acquired"
+                : "Anchor block follower lease held by another instance");
+        }
+        return state;
+    }
+
+    /**
+     * Gives up the follower lease on shutdown, so another instance takes over without waiting
+     * for it to expire
+     */
+    @PreDestroy
+    public void releaseLease() {
+        if (!leader) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(AnchorFollowerState.DEFAULT_ID).and("leaseOwner").is(instanceId)),
+            new Update().set("leaseUntil", 0L),
+            AnchorFollowerState.class);
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        mongoTemplate.indexOps(AnchorIndexEntry.class)
+            .ensureIndex(new Index().on("transactionHash", Sort.Direction.ASC).unique());
+        mongoTemplate.indexOps(AnchorIndexEntry.class)
+            .ensureIndex(new Index().on("blockNumber", Sort.Direction.ASC));
+        indexesEnsured = true;
+    }
+
+    private static EthBlock.Block getBlock(Web3j web3j, long number, boolean fullTransactions) throws IOException {
+        return web3j.ethGetBlockByNumber(
+            DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), fullTransactions).send().getBlock();
+    }
+
+    /**
+     * Whether lookups may be served from the local index
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Latest block number seen by the follower, or -1 before the first poll
+     */
+    public long getHeadBlock() {
+        return headBlock;
+    }
+}
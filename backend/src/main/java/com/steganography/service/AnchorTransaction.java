@@ -0,0 +1,23 @@
+package com.steganography.service;
+
+/**
+ * Anchor transaction sent to the blockchain, with the address of the signer lane that sent it
+ */
+public class AnchorTransaction {
+
+    private final String transactionHash;
+    private final String signerAddress;
+
+    public AnchorTransaction(String transactionHash, String signerAddress) {
+        this.transactionHash = transactionHash;
+        this.signerAddress = signerAddress;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public String getSignerAddress() {
+        return signerAddress;
+    }
+}
@@ -1,8 +1,14 @@
 package com.steganography.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.http.HttpService;
 import org.web3j.tx.gas.DefaultGasProvider;
@@ -12,88 +18,421 @@ import org.web3j.utils.Convert;
 import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthGasPrice;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * Anchors hashes on the blockchain and reads them back.
+ *
+ * Anchor transactions are spread over a pool of signer lanes, one per configured key
+ * ({@code blockchain.signer.keys}, or {@code blockchain.private.key} alone), so that
+ * submissions do not all wait on a single account's nonce sequence. A lane's in-flight slots
+ * are freed as its transactions are mined, which {@link #reconcileLanes()} checks against the
+ * node.
+ */
 @Service
 public class BlockchainService {
     
     private static final Logger log = LoggerFactory.getLogger(BlockchainService.class);
     
-    private final Web3j web3j;
-    private final Credentials credentials;
+    private static final long LANE_POLL_MS = 20;
+    private static final int NONCE_RETRIES = 2;
+    
+    private final String rpcUrl;
+    private final List<String> signerKeys;
+    private final boolean hashSelection;
+    private final int maxInFlight;
+    private final int failureThreshold;
+    private final long cooldownMs;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    
+    // Built on first use so startup does not load the web3j/OkHttp/BouncyCastle stack
+    private volatile Web3j web3j;
+    private volatile List<SignerLane> lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
     
     @Value("${blockchain.contract.address}")
     private String contractAddress;
     
     public BlockchainService(@Value("${blockchain.rpc.url}") String rpcUrl,
-                           @Value("${blockchain.private.key}") String privateKey) {
-        this.web3j = Web3j.build(new HttpService(rpcUrl));
-        
-        // Handle private key with or without 0x prefix
-        String cleanPrivateKey = privateKey;
-        if (privateKey.startsWith("0x")) {
-            cleanPrivateKey = privateKey.substring(2);
+                           @Value("${blockchain.private.key}") String privateKey,
+                           @Value("${blockchain.signer.keys:}") String signerKeys,
+                           @Value("${blockchain.signer.selection:least-loaded}") String selection,
+                           @Value("${blockchain.signer.max-in-flight:4}") int maxInFlight,
+                           @Value("${blockchain.signer.failure-threshold:3}") int failureThreshold,
+                           @Value("${blockchain.signer.cooldown-ms:30000}") long cooldownMs,
+                           @Value("${blockchain.signer.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                           MeterRegistry meterRegistry) {
+        this.rpcUrl = rpcUrl;
+        this.signerKeys = Arrays.stream(signerKeys.split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .distinct()
+            .collect(Collectors.toCollection(ArrayList::new));
+        if (this.signerKeys.isEmpty()) {
+            this.signerKeys.add(privateKey);
         }
-        
-        this.credentials = Credentials.create(cleanPrivateKey);
-        log.info("Blockchain service initialized with address: {}", credentials.getAddress());
+        if (!"least-loaded".equalsIgnoreCase(selection) && !"hash".equalsIgnoreCase(selection)) {
+            throw new IllegalArgumentException("Unknown signer lane selection: " + selection);
+        }
+        this.hashSelection = "hash".equalsIgnoreCase(selection);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldownMs = cooldownMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Builds the RPC client and signing credentials ahead of the first request
+     */
+    public void warmUp() {
+        web3j();
+        lanes();
+    }
+    
+    Web3j web3j() {
+        Web3j client = web3j;
+        if (client == null) {
+            synchronized (this) {
+                client = web3j;
+                if (client == null) {
+                    client = Web3j.build(new HttpService(rpcUrl));
+                    web3j = client;
+                }
+            }
+        }
+        return client;
     }
     
     /**
-     * Get the blockchain address for this service
+     * Signer lanes, one per configured key
      */
-    public String getAddress() {
-        return credentials.getAddress();
+    public List<SignerLane> lanes() {
+        List<SignerLane> pool = lanes;
+        if (pool == null) {
+            synchronized (this) {
+                pool = lanes;
+                if (pool == null) {
+                    List<SignerLane> created = new ArrayList<>();
+                    for (String key : signerKeys) {
+                        // Handle private key with or without 0x prefix
+                        String cleanPrivateKey = key.startsWith("0x") ? key.substring(2) : key;
+                        SignerLane lane = new SignerLane(created.size(), Credentials.create(cleanPrivateKey), maxInFlight);
+                        registerMetrics(lane);
+                        created.add(lane);
+                        log.info("Signer lane {} initialized with address: {}", lane.getIndex(), lane.getAddress());
+                    }
+                    pool = Collections.unmodifiableList(created);
+                    lanes = pool;
+                }
+            }
+        }
+        return pool;
+    }
+    
+    /**
+     * Signer lanes if they have been built, without building them
+     */
+    public Optional<List<SignerLane>> initializedLanes() {
+        return Optional.ofNullable(lanes);
+    }
+    
+    /**
+     * Lower-case addresses of all signer lanes
+     */
+    public Set<String> getSignerAddresses() {
+        return lanes().stream()
+            .map(lane -> lane.getAddress().toLowerCase())
+            .collect(Collectors.toSet());
+    }
+    
+    /**
+     * Get the address anchor transactions are sent to
+     */
+    public String getContractAddress() {
+        return contractAddress;
     }
     
     /**
      * Stores hash on the blockchain by sending a transaction with hash in data field
      */
-    public String storeHashOnBlockchain(String hash) {
+    public AnchorTransaction storeHashOnBlockchain(String hash) {
         try {
-            log.info("Storing hash on blockchain: {}", hash);
-            
-            // Create transaction with hash in data field
-            BigInteger gasPrice = web3j.ethGasPrice().send().getGasPrice();
-            BigInteger gasLimit = BigInteger.valueOf(21000);
-            BigInteger nonce = web3j.ethGetTransactionCount(
-                credentials.getAddress(), 
-                org.web3j.protocol.core.DefaultBlockParameterName.LATEST
-            ).send().getTransactionCount();
-            
-            // Convert hash to hex bytes for transaction data
-            String data = "0x" + hash;
-            
-            org.web3j.crypto.RawTransaction rawTransaction = 
-                org.web3j.crypto.RawTransaction.createTransaction(
-                    nonce, gasPrice, gasLimit, contractAddress, BigInteger.ZERO, data);
-            
-            byte[] signedMessage = org.web3j.crypto.TransactionEncoder.signMessage(
-                rawTransaction, credentials);
-            
-            String hexValue = org.web3j.utils.Numeric.toHexString(signedMessage);
-            
-            org.web3j.protocol.core.methods.response.EthSendTransaction response = 
-                web3j.ethSendRawTransaction(hexValue).send();
-            
-            if (response.hasError()) {
-                throw new RuntimeException("Transaction failed: " + response.getError().getMessage());
+            return storeHashOnBlockchainAsync(hash).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to store hash on blockchain", e.getCause());
+        }
+    }
+    
+    /**
+     * Non-blocking variant of {@link #storeHashOnBlockchain(String)} using web3j's async RPC calls
+     */
+    public CompletableFuture<AnchorTransaction> storeHashOnBlockchainAsync(String hash) {
+        return acquireLane(hash, System.currentTimeMillis() + acquireTimeoutMs)
+            .thenCompose(lane -> {
+                log.info("Storing hash on blockchain via signer lane {}: {}", lane.getIndex(), hash);
+                return lane.enqueue(() -> submit(lane, hash, NONCE_RETRIES))
+                    .thenApply(transactionHash -> new AnchorTransaction(transactionHash, lane.getAddress()))
+                    .whenComplete((anchor, e) -> {
+                        // A sent transaction keeps its slot until it is mined
+                        if (e != null) {
+                            lane.release();
+                        }
+                    });
+            })
+            .whenComplete((anchor, e) -> {
+                if (e != null) {
+                    log.error("Failed to store hash on blockchain", e);
+                }
+            });
+    }
+    
+    /**
+     * Waits without blocking for a free in-flight slot on a lane, polling until the deadline.
+     * Fails at once when every lane is parked.
+     */
+    private CompletableFuture<SignerLane> acquireLane(String hash, long deadline) {
+        SignerLane lane = tryAcquireLane(hash);
+        if (lane != null) {
+            return CompletableFuture.completedFuture(lane);
+        }
+        if (lanes().stream().noneMatch(SignerLane::isAvailable)) {
+            return CompletableFuture.failedFuture(new RuntimeException("All signer lanes are parked after repeated failures"));
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            return CompletableFuture.failedFuture(new RuntimeException("All signer lanes are at their in-flight limit"));
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(LANE_POLL_MS, TimeUnit.MILLISECONDS))
+            .thenCompose(ignored -> acquireLane(hash, deadline));
+    }
+    
+    /**
+     * Picks a lane with a free in-flight slot: the one with the fewest queued and unmined
+     * transactions, or with hash selection the lane the hash maps to (moving on to the next
+     * lane when that one is full). Parked lanes are skipped. Returns null when no lane has room.
+     */
+    private SignerLane tryAcquireLane(String hash) {
+        List<SignerLane> pool = lanes();
+        List<SignerLane> candidates = new ArrayList<>(pool.size());
+        if (hashSelection) {
+            int start = Math.floorMod(hash.hashCode(), pool.size());
+            for (int i = 0; i < pool.size(); i++) {
+                candidates.add(pool.get((start + i) % pool.size()));
             }
-            
-            String transactionHash = response.getTransactionHash();
-            log.info("Transaction sent successfully. Hash: {}", transactionHash);
-            
-            return transactionHash;
-            
-        } catch (Exception e) {
-            log.error("Failed to store hash on blockchain", e);
-            throw new RuntimeException("Failed to store hash on blockchain", e);
+        } else {
+            // Ties go round-robin, so light traffic still spreads over all lanes
+            int start = Math.floorMod(nextLane.getAndIncrement(), pool.size());
+            for (int i = 0; i < pool.size(); i++) {
+                candidates.add(pool.get((start + i) % pool.size()));
+            }
+            candidates.sort(Comparator.comparingInt(SignerLane::getInFlight));
         }
+        
+        for (SignerLane lane : candidates) {
+            if (lane.isAvailable() && lane.tryAcquire()) {
+                return lane;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Signs and sends one anchor transaction on the lane. A nonce rejection means the local
+     * sequence drifted (e.g. the key was used elsewhere), so the nonce is re-read from the
+     * node and the transaction retried.
+     */
+    private CompletableFuture<String> submit(SignerLane lane, String hash, int nonceRetries) {
+        CompletableFuture<BigInteger> gasPrice = web3j().ethGasPrice().sendAsync()
+            .thenApply(EthGasPrice::getGasPrice);
+        CompletableFuture<BigInteger> nonce = lane.getNextNonce() >= 0
+            ? CompletableFuture.completedFuture(BigInteger.valueOf(lane.getNextNonce()))
+            : web3j().ethGetTransactionCount(
+                    lane.getAddress(),
+                    DefaultBlockParameterName.PENDING
+                ).sendAsync()
+                .thenApply(EthGetTransactionCount::getTransactionCount);
+        
+        return nonce.thenCompose(count -> gasPrice
+                .thenApply(price -> signHashTransaction(hash, count, price, lane.getCredentials()))
+                .thenCompose(hexValue -> web3j().ethSendRawTransaction(hexValue).sendAsync()
+                    .thenApply(response -> {
+                        String transactionHash = toTransactionHash(response);
+                        lane.recordSent(count.longValue(), hexValue);
+                        return transactionHash;
+                    })))
+            .exceptionallyCompose(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (nonceRetries > 0 && isNonceError(cause)) {
+                    log.warn("Signer lane {} nonce rejected ({}), resyncing", lane.getIndex(), cause.getMessage());
+                    lane.resyncNonce();
+                    return submit(lane, hash, nonceRetries - 1);
+                }
+                lane.recordFailure(cause.getMessage(), failureThreshold, cooldownMs);
+                return CompletableFuture.failedFuture(cause);
+            });
+    }
+    
+    /**
+     * Frees the in-flight slots of mined transactions and repairs nonce gaps. A gap is left when
+     * the node dropped one of a lane's transactions: it keeps the later nonces queued without
+     * rejecting them, so the send path never sees a nonce error. The node's pending count then
+     * stops below the lane's next nonce, and the lane's transactions from there on are sent
+     * again.
+     */
+    @Scheduled(fixedDelayString = "${blockchain.signer.reconcile-interval-ms:2000}")
+    public void reconcileLanes() {
+        List<SignerLane> pool = lanes;
+        if (pool == null) {
+            return;
+        }
+        
+        for (SignerLane lane : pool) {
+            if (lane.getPending() == 0) {
+                continue;
+            }
+            try {
+                reconcile(lane);
+            } catch (Exception e) {
+                log.warn("Failed to reconcile signer lane {}: {}", lane.getIndex(), e.getMessage());
+            }
+        }
+    }
+    
+    private void reconcile(SignerLane lane) throws IOException {
+        // Read before asking the node, so a transaction sent meanwhile does not look like a gap
+        long nextNonce = lane.getNextNonce();
+        
+        int freed = lane.recordMined(transactionCount(lane, DefaultBlockParameterName.LATEST));
+        if (freed > 0) {
+            log.debug("Signer lane {}: {} transaction(s) mined", lane.getIndex(), freed);
+        }
+        if (lane.getPending() == 0 || nextNonce < 0) {
+            return;
+        }
+        
+        long nodePending = transactionCount(lane, DefaultBlockParameterName.PENDING);
+        if (nodePending < nextNonce) {
+            log.warn("Signer lane {} has a nonce gap at {} (next nonce {}), resending", lane.getIndex(), nodePending, nextNonce);
+            lane.enqueue(() -> fillGap(lane, nodePending));
+        }
+    }
+    
+    /**
+     * Resends the lane's pending transactions from the missing nonce on, queued behind the
+     * lane's submissions. When the missing nonce is not one of the lane's own, the nonce is
+     * re-read instead, so the next submission takes it.
+     */
+    private CompletableFuture<Void> fillGap(SignerLane lane, long gapNonce) {
+        if (!lane.isPending(gapNonce)) {
+            lane.resyncNonce();
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        lane.recordGapRefill();
+        CompletableFuture<Void> resent = CompletableFuture.completedFuture(null);
+        for (String signedTransaction : lane.getPendingTransactionsFrom(gapNonce)) {
+            resent = resent
+                .thenCompose(ignored -> web3j().ethSendRawTransaction(signedTransaction).sendAsync())
+                .thenAccept(response -> {
+                    // "already known" for transactions the node still holds
+                    if (response.hasError()) {
+                        log.debug("Signer lane {} resend: {}", lane.getIndex(), response.getError().getMessage());
+                    }
+                });
+        }
+        return resent.whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.warn("Failed to resend signer lane {} transactions: {}", lane.getIndex(), e.getMessage());
+            }
+        });
+    }
+    
+    private long transactionCount(SignerLane lane, DefaultBlockParameterName block) throws IOException {
+        EthGetTransactionCount response = web3j().ethGetTransactionCount(lane.getAddress(), block).send();
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        return response.getTransactionCount().longValue();
+    }
+    
+    private static boolean isNonceError(Throwable e) {
+        String message = e.getMessage() == null ? "" : e.getMessage().toLowerCase();
+        return message.contains("nonce") || message.contains("replacement transaction underpriced");
+    }
+    
+    private String signHashTransaction(String hash, BigInteger nonce, BigInteger gasPrice, Credentials signer) {
+        BigInteger gasLimit = BigInteger.valueOf(21000);
+        
+        // Convert hash to hex bytes for transaction data
+        String data = "0x" + hash;
+        
+        org.web3j.crypto.RawTransaction rawTransaction = 
+            org.web3j.crypto.RawTransaction.createTransaction(
+                nonce, gasPrice, gasLimit, contractAddress, BigInteger.ZERO, data);
+        
+        byte[] signedMessage = org.web3j.crypto.TransactionEncoder.signMessage(
+            rawTransaction, signer);
+        
+        return org.web3j.utils.Numeric.toHexString(signedMessage);
+    }
+    
+    private void registerMetrics(SignerLane lane) {
+        Tags tags = Tags.of("signer", lane.getAddress());
+        Gauge.builder("blockchain.signer.in_flight", lane, SignerLane::getInFlight)
+            .description("Anchor submissions queued, sending or not yet mined on the signer lane")
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("blockchain.signer.pending", lane, SignerLane::getPending)
+            .description("Anchor transactions sent and not yet mined on the signer lane")
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("blockchain.signer.available", lane, l -> l.isAvailable() ? 1 : 0)
+            .description("1 while the signer lane takes submissions, 0 while parked")
+            .tags(tags)
+            .register(meterRegistry);
+        FunctionCounter.builder("blockchain.signer.sent", lane, SignerLane::getSent)
+            .tags(tags)
+            .register(meterRegistry);
+        FunctionCounter.builder("blockchain.signer.failed", lane, SignerLane::getFailed)
+            .tags(tags)
+            .register(meterRegistry);
+        FunctionCounter.builder("blockchain.signer.nonce.resyncs", lane, SignerLane::getNonceResyncs)
+            .tags(tags)
+            .register(meterRegistry);
+        FunctionCounter.builder("blockchain.signer.nonce.gap_refills", lane, SignerLane::getGapRefills)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+    
+    private String toTransactionHash(org.web3j.protocol.core.methods.response.EthSendTransaction response) {
+        if (response.hasError()) {
+            throw new RuntimeException("Transaction failed: " + response.getError().getMessage());
+        }
+        
+        String transactionHash = response.getTransactionHash();
+        log.info("Transaction sent successfully. Hash: {}", transactionHash);
+        
+        return transactionHash;
     }
     
     /**
@@ -103,30 +442,17 @@ public class BlockchainService {
         try {
             log.info("Retrieving hash from blockchain transaction: {}", transactionHash);
             
-            EthGetTransactionReceipt receipt = web3j.ethGetTransactionReceipt(transactionHash).send();
+            EthGetTransactionReceipt receipt = web3j().ethGetTransactionReceipt(transactionHash).send();
             
             if (receipt.getTransactionReceipt().isEmpty()) {
                 throw new RuntimeException("Transaction not found or still pending");
             }
             
-            TransactionReceipt transactionReceipt = receipt.getTransactionReceipt().get();
-            
             // Get the original transaction to access input data
             org.web3j.protocol.core.methods.response.EthTransaction ethTransaction = 
-                web3j.ethGetTransactionByHash(transactionHash).send();
-            
-            if (ethTransaction.getTransaction().isEmpty()) {
-                throw new RuntimeException("Transaction details not found");
-            }
+                web3j().ethGetTransactionByHash(transactionHash).send();
             
-            String inputData = ethTransaction.getTransaction().get().getInput();
-            
-            // Remove '0x' prefix and return the hash
-            if (inputData != null && inputData.startsWith("0x") && inputData.length() > 2) {
-                return inputData.substring(2);
-            }
-            
-            throw new RuntimeException("No hash data found in transaction");
+            return extractHash(ethTransaction);
             
         } catch (Exception e) {
             log.error("Failed to retrieve hash from blockchain", e);
@@ -134,12 +460,48 @@ public class BlockchainService {
         }
     }
     
+    /**
+     * Non-blocking variant of {@link #getHashFromBlockchain(String)}
+     */
+    public CompletableFuture<String> getHashFromBlockchainAsync(String transactionHash) {
+        log.info("Retrieving hash from blockchain transaction (async): {}", transactionHash);
+        
+        return web3j().ethGetTransactionReceipt(transactionHash).sendAsync()
+            .thenCompose(receipt -> {
+                if (receipt.getTransactionReceipt().isEmpty()) {
+                    throw new RuntimeException("Transaction not found or still pending");
+                }
+                return web3j().ethGetTransactionByHash(transactionHash).sendAsync();
+            })
+            .thenApply(this::extractHash)
+            .whenComplete((hash, e) -> {
+                if (e != null) {
+                    log.error("Failed to retrieve hash from blockchain", e);
+                }
+            });
+    }
+    
+    private String extractHash(org.web3j.protocol.core.methods.response.EthTransaction ethTransaction) {
+        if (ethTransaction.getTransaction().isEmpty()) {
+            throw new RuntimeException("Transaction details not found");
+        }
+        
+        String inputData = ethTransaction.getTransaction().get().getInput();
+        
+        // Remove '0x' prefix and return the hash
+        if (inputData != null && inputData.startsWith("0x") && inputData.length() > 2) {
+            return inputData.substring(2);
+        }
+        
+        throw new RuntimeException("No hash data found in transaction");
+    }
+    
     /**
      * Verifies if the transaction exists and is confirmed
      */
     public boolean verifyTransactionExists(String transactionHash) {
         try {
-            EthGetTransactionReceipt receipt = web3j.ethGetTransactionReceipt(transactionHash).send();
+            EthGetTransactionReceipt receipt = web3j().ethGetTransactionReceipt(transactionHash).send();
             return receipt.getTransactionReceipt().isPresent();
         } catch (Exception e) {
             log.error("Failed to verify transaction existence", e);
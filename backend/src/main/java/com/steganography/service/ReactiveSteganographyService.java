@@ -0,0 +1,246 @@
+package com.steganography.service;
+
+import com.steganography.model.AnchorIndexEntry;
+import com.steganography.model.SteganographyRecord;
+import com.steganography.util.PngEncodeOptions;
+import com.steganography.util.SteganographyUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link SteganographyService} used by the "reactive" profile.
+ * Image work runs on a bounded scheduler, and waiting for an admission permit on a separate
+ * one; storage and RPC calls never block a thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSteganographyService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSteganographyService.class);
+
+    @Autowired
+    private SteganographyUtil steganographyUtil;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private AnchorIndexService anchorIndexService;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final Scheduler imageScheduler;
+    private final Scheduler admissionScheduler;
+    private final DataSize maxUploadSize;
+
+    public ReactiveSteganographyService(@Value("${steganography.reactive.image-threads:4}") int imageThreads,
+                                        @Value("${steganography.reactive.image-queue-size:256}") int imageQueueSize,
+                                        @Value("${steganography.reactive.admission-threads:${steganography.admission.max-queue-depth:32}}") int admissionThreads,
+                                        @Value("${spring.webflux.multipart.max-disk-usage-per-part:50MB}") DataSize maxUploadSize) {
+        this.imageScheduler = Schedulers.newBoundedElastic(imageThreads, imageQueueSize, "stego-image");
+        this.admissionScheduler = Schedulers.newBoundedElastic(admissionThreads, imageQueueSize, "stego-admission");
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageScheduler.dispose();
+        admissionScheduler.dispose();
+    }
+
+    /**
+     * Hides text in image and stores hash on blockchain. A non-blank key selects keyed
+     * scatter embedding; the options control how the stego PNG is encoded.
+     */
+    public Mono<SteganographyRecord> hideTextInImage(FilePart imagePart, long uploadSize, String text, String key,
+                                                     PngEncodeOptions options) {
+        log.info("Hiding text in image: {}", imagePart.filename());
+
+        // Validate input
+        if (!MediaType.IMAGE_PNG.equals(imagePart.headers().getContentType())) {
+            return Mono.error(new IllegalArgumentException("Only PNG images are supported"));
+        }
+
+        // Generate hash of the text
+        String textHash = steganographyUtil.generateSHA256(text);
+        log.info("Generated SHA-256 hash: {}", textHash);
+
+        return onImageScheduler(imagePart, uploadSize, bytes -> steganographyUtil.hideText(bytes, text, key, options))
+            .then(Mono.fromFuture(() -> blockchainService.storeHashOnBlockchainAsync(textHash))
+                .doOnNext(anchor -> log.info("Successfully stored hash on blockchain: {}", anchor.getTransactionHash()))
+                .onErrorResume(e -> {
+                    log.warn("Blockchain storage failed, using fallback: {}", e.getMessage());
+                    // Fallback when blockchain fails; no signer anchored it
+                    return Mono.just(new AnchorTransaction("FALLBACK_" + System.currentTimeMillis(), null));
+                }))
+            .flatMap(anchor -> {
+                SteganographyRecord record = new SteganographyRecord();
+                record.setOriginalFileName(imagePart.filename());
+                record.setFileName("stego_" + System.currentTimeMillis() + "_" + imagePart.filename());
+                record.setTextHash(textHash);
+                record.setTransactionHash(anchor.getTransactionHash());
+                record.setBlockchainAddress(anchor.getSignerAddress());
+                record.setCreatedAt(LocalDateTime.now());
+                record.setStatus("COMPLETED");
+
+                return reactiveMongoTemplate.save(record);
+            })
+            .doOnNext(record -> log.info("Successfully hidden text and stored hash. Record ID: {}", record.getId()));
+    }
+
+    /**
+     * Extracts text from image and verifies against blockchain
+     */
+    public Mono<String> extractAndVerifyText(FilePart imagePart, long uploadSize, String transactionHash, String key) {
+        log.info("Extracting and verifying text from image: {}", imagePart.filename());
+
+        Mono<String> blockchainHash = getAnchoredHash(transactionHash);
+
+        return onImageScheduler(imagePart, uploadSize, bytes -> steganographyUtil.extractText(bytes, key))
+            .zipWith(blockchainHash)
+            .map(tuple -> {
+                String extractedText = tuple.getT1();
+
+                // Verify integrity
+                if (!steganographyUtil.generateSHA256(extractedText).equals(tuple.getT2())) {
+                    throw new RuntimeException("Text integrity verification failed. Hash mismatch!");
+                }
+
+                log.info("Text integrity verified successfully");
+                return extractedText;
+            });
+    }
+
+    /**
+     * Verifies text integrity without extraction
+     */
+    public Mono<Boolean> verifyTextIntegrity(String text, String transactionHash) {
+        String textHash = steganographyUtil.generateSHA256(text);
+
+        return getAnchoredHash(transactionHash)
+            .map(textHash::equals)
+            .onErrorResume(e -> {
+                log.error("Failed to verify text integrity", e);
+                return Mono.just(false);
+            });
+    }
+
+    /**
+     * Gets all steganography records
+     */
+    public Flux<SteganographyRecord> getAllRecords() {
+        return reactiveMongoTemplate.findAll(SteganographyRecord.class);
+    }
+
+    /**
+     * Gets record by ID
+     */
+    public Mono<SteganographyRecord> getRecordById(String id) {
+        return reactiveMongoTemplate.findById(id, SteganographyRecord.class);
+    }
+
+    /**
+     * Gets records by transaction hash
+     */
+    public Mono<SteganographyRecord> getRecordByTransactionHash(String transactionHash) {
+        Query query = new Query(Criteria.where("transactionHash").is(transactionHash));
+        return reactiveMongoTemplate.findOne(query, SteganographyRecord.class);
+    }
+
+    /**
+     * Gets the anchored hash from the local anchor index, or from the blockchain if not indexed yet
+     */
+    private Mono<String> getAnchoredHash(String transactionHash) {
+        Mono<String> fromBlockchain = Mono.fromFuture(() -> blockchainService.getHashFromBlockchainAsync(transactionHash));
+        if (!anchorIndexService.isEnabled()) {
+            return fromBlockchain;
+        }
+        return reactiveMongoTemplate.findOne(AnchorIndexService.transactionQuery(transactionHash), AnchorIndexEntry.class)
+            .filter(anchorIndexService::isServable)
+            .map(AnchorIndexEntry::getDataHash)
+            .switchIfEmpty(fromBlockchain);
+    }
+
+    /**
+     * Runs CPU-bound image work on the bounded scheduler under an admission permit. The permit
+     * is sized from the PNG header in the first buffer and taken before the rest of the upload
+     * is joined into memory, so rejected requests never buffer the whole image. An unknown
+     * upload size (-1) is charged at the multipart part limit.
+     *
+     * The permit wait blocks, so it runs on its own scheduler: on the image scheduler, requests
+     * waiting for budget would hold every thread and starve the admitted work that frees it.
+     */
+    private <T> Mono<T> onImageScheduler(FilePart imagePart, long uploadSize, ImageTask<T> task) {
+        long charge = uploadSize >= 0 ? uploadSize : maxUploadSize.toBytes();
+
+        return imagePart.content()
+            .switchOnFirst((first, content) -> {
+                if (!first.hasValue()) {
+                    return first.hasError() ? Mono.error(first.getThrowable())
+                        : Mono.error(new IllegalArgumentException("Image file is empty"));
+                }
+
+                byte[] header = peek(first.get(), AdmissionControlService.PNG_HEADER_LENGTH);
+                return Mono.usingWhen(
+                    Mono.fromCallable(() -> admissionControlService.acquire(header, charge)).subscribeOn(admissionScheduler),
+                    permit -> readBytes(content)
+                        .flatMap(imageBytes -> Mono.fromCallable(() -> task.apply(imageBytes)).subscribeOn(imageScheduler)),
+                    permit -> Mono.fromRunnable(permit::close));
+            })
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+            .next();
+    }
+
+    /**
+     * Copies up to length readable bytes without consuming them
+     */
+    private static byte[] peek(DataBuffer buffer, int length) {
+        byte[] bytes = new byte[Math.min(length, buffer.readableByteCount())];
+        int start = buffer.readPosition();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.getByte(start + i);
+        }
+        return bytes;
+    }
+
+    private Mono<byte[]> readBytes(Flux<DataBuffer> content) {
+        return DataBufferUtils.join(content)
+            .map(dataBuffer -> {
+                try {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    return bytes;
+                } finally {
+                    DataBufferUtils.release(dataBuffer);
+                }
+            });
+    }
+
+    @FunctionalInterface
+    private interface ImageTask<T> {
+        T apply(byte[] imageBytes) throws Exception;
+    }
+}
@@ -0,0 +1,206 @@
+package com.steganography.service;
+
+import org.web3j.crypto.Credentials;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * One signing account used for anchor transactions.
+ *
+ * Each lane keeps its own nonce sequence. Submissions on a lane are chained, so a transaction
+ * is signed and sent only after the previous one was accepted or rejected, and nonces reach
+ * the node in order. A submission holds one of the lane's in-flight slots until its transaction
+ * is mined (or until it fails), so the in-flight limit caps what the lane has waiting in the
+ * node's mempool, not just what it is sending. After repeated consecutive failures the lane is
+ * parked for a cooldown period.
+ */
+public class SignerLane {
+
+    private final int index;
+    private final Credentials credentials;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+    // Signed transactions sent but not yet mined, by nonce; each holds an in-flight slot
+    private final ConcurrentSkipListMap<Long, String> pending = new ConcurrentSkipListMap<>();
+
+    // Next nonce to use, or -1 when it has to be read from the node's pending count
+    private volatile long nextNonce = -1;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong nonceResyncs = new AtomicLong();
+    private final AtomicLong gapRefills = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long parkedUntil;
+    private volatile String lastError;
+
+    public SignerLane(int index, Credentials credentials, int maxInFlight) {
+        this.index = index;
+        this.credentials = credentials;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Reserves an in-flight slot, or returns false if the lane is full
+     */
+    boolean tryAcquire() {
+        return inFlight.tryAcquire();
+    }
+
+    void release() {
+        inFlight.release();
+    }
+
+    /**
+     * Runs the submission once every earlier submission on this lane has settled
+     */
+    synchronized <T> CompletableFuture<T> enqueue(Supplier<CompletableFuture<T>> submission) {
+        CompletableFuture<T> result = tail
+            .handle((ignored, e) -> null)
+            .thenCompose(ignored -> submission.get());
+        tail = result;
+        return result;
+    }
+
+    /**
+     * Records a transaction accepted by the node. Its in-flight slot stays held until
+     * {@link #recordMined(long)} sees the nonce included.
+     */
+    void recordSent(long nonce, String signedTransaction) {
+        if (pending.put(nonce, signedTransaction) != null) {
+            // Replaced a pending transaction with the same nonce, which held its own slot
+            inFlight.release();
+        }
+        nextNonce = nonce + 1;
+        sent.incrementAndGet();
+        consecutiveFailures.set(0);
+        parkedUntil = 0;
+    }
+
+    /**
+     * Records a failed submission. The nonce is re-read from the node next time, since a
+     * failed send may or may not have reached the mempool.
+     */
+    void recordFailure(String message, int failureThreshold, long cooldownMs) {
+        nextNonce = -1;
+        failed.incrementAndGet();
+        lastError = message;
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            parkedUntil = System.currentTimeMillis() + cooldownMs;
+        }
+    }
+
+    void resyncNonce() {
+        nextNonce = -1;
+        nonceResyncs.incrementAndGet();
+    }
+
+    /**
+     * Frees the slots of pending transactions below the account's mined transaction count.
+     * Returns the number of slots freed.
+     */
+    int recordMined(long minedCount) {
+        int freed = 0;
+        for (Map.Entry<Long, String> entry = pending.firstEntry();
+             entry != null && entry.getKey() < minedCount;
+             entry = pending.firstEntry()) {
+            if (pending.remove(entry.getKey()) != null) {
+                inFlight.release();
+                freed++;
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Signed pending transactions from the given nonce on, in nonce order
+     */
+    List<String> getPendingTransactionsFrom(long nonce) {
+        return new ArrayList<>(pending.tailMap(nonce).values());
+    }
+
+    boolean isPending(long nonce) {
+        return pending.containsKey(nonce);
+    }
+
+    void recordGapRefill() {
+        gapRefills.incrementAndGet();
+    }
+
+    /**
+     * Whether the lane takes new submissions (not parked after repeated failures)
+     */
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= parkedUntil;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    Credentials getCredentials() {
+        return credentials;
+    }
+
+    public String getAddress() {
+        return credentials.getAddress();
+    }
+
+    /**
+     * Submissions queued, sending, or sent and not yet mined
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Transactions sent and not yet mined
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getNextNonce() {
+        return nextNonce;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getNonceResyncs() {
+        return nonceResyncs.get();
+    }
+
+    public long getGapRefills() {
+        return gapRefills.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -1,6 +1,7 @@
 package com.steganography.service;
 
 import com.steganography.model.SteganographyRecord;
+import com.steganography.util.PngEncodeOptions;
 import com.steganography.util.SteganographyUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -12,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -26,13 +28,21 @@ public class SteganographyService {
     @Autowired
     private BlockchainService blockchainService;
     
+    @Autowired
+    private AnchorIndexService anchorIndexService;
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
     @Autowired
     private MongoTemplate mongoTemplate;
     
     /**
-     * Hides text in image and stores hash on blockchain
+     * Hides text in image and stores hash on blockchain. A non-blank key selects keyed
+     * scatter embedding; the options control how the stego PNG is encoded.
      */
-    public SteganographyRecord hideTextInImage(MultipartFile imageFile, String text) throws IOException {
+    public SteganographyRecord hideTextInImage(MultipartFile imageFile, String text, String key,
+                                               PngEncodeOptions options) throws IOException {
         log.info("Hiding text in image: {}", imageFile.getOriginalFilename());
         
         // Validate input
@@ -45,17 +55,22 @@ public class SteganographyService {
         log.info("Generated SHA-256 hash: {}", textHash);
         
         // Hide text in image
-        byte[] originalImageBytes = imageFile.getBytes();
-        byte[] stegoImageBytes = steganographyUtil.hideText(originalImageBytes, text);
+        byte[] stegoImageBytes;
+        // Memory budget covers only the image work, not anchoring or the record save
+        try (AdmissionControlService.Permit permit = admit(imageFile)) {
+            byte[] originalImageBytes = imageFile.getBytes();
+            stegoImageBytes = steganographyUtil.hideText(originalImageBytes, text, key, options);
+        }
         
         // Store hash on blockchain (with fallback)
-        String transactionHash;
+        AnchorTransaction anchor;
         try {
-            transactionHash = blockchainService.storeHashOnBlockchain(textHash);
-            log.info("Successfully stored hash on blockchain: {}", transactionHash);
+            anchor = blockchainService.storeHashOnBlockchain(textHash);
+            log.info("Successfully stored hash on blockchain: {}", anchor.getTransactionHash());
         } catch (Exception e) {
             log.warn("Blockchain storage failed, using fallback: {}", e.getMessage());
-            transactionHash = "FALLBACK_" + System.currentTimeMillis(); // Fallback when blockchain fails
+            // Fallback when blockchain fails; no signer anchored it
+            anchor = new AnchorTransaction("FALLBACK_" + System.currentTimeMillis(), null);
         }
         
         // Create and save record
@@ -63,8 +78,8 @@ public class SteganographyService {
         record.setOriginalFileName(imageFile.getOriginalFilename());
         record.setFileName("stego_" + System.currentTimeMillis() + "_" + imageFile.getOriginalFilename());
         record.setTextHash(textHash);
-        record.setTransactionHash(transactionHash);
-        record.setBlockchainAddress(blockchainService.getAddress());
+        record.setTransactionHash(anchor.getTransactionHash());
+        record.setBlockchainAddress(anchor.getSignerAddress());
         record.setCreatedAt(LocalDateTime.now());
         record.setStatus("COMPLETED");
         
@@ -77,18 +92,21 @@ public class SteganographyService {
     /**
      * Extracts text from image and verifies against blockchain
      */
-    public String extractAndVerifyText(MultipartFile imageFile, String transactionHash) throws IOException {
+    public String extractAndVerifyText(MultipartFile imageFile, String transactionHash, String key) throws IOException {
         log.info("Extracting and verifying text from image: {}", imageFile.getOriginalFilename());
         
         // Extract text from image
-        byte[] imageBytes = imageFile.getBytes();
-        String extractedText = steganographyUtil.extractText(imageBytes);
+        String extractedText;
+        try (AdmissionControlService.Permit permit = admit(imageFile)) {
+            byte[] imageBytes = imageFile.getBytes();
+            extractedText = steganographyUtil.extractText(imageBytes, key);
+        }
         
         // Generate hash of extracted text
         String extractedTextHash = steganographyUtil.generateSHA256(extractedText);
         
-        // Get hash from blockchain
-        String blockchainHash = blockchainService.getHashFromBlockchain(transactionHash);
+        // Get hash from the local anchor index, or from the blockchain if not indexed yet
+        String blockchainHash = anchorIndexService.getAnchoredHash(transactionHash);
         
         // Verify integrity
         if (!extractedTextHash.equals(blockchainHash)) {
@@ -99,13 +117,25 @@ public class SteganographyService {
         return extractedText;
     }
     
+    /**
+     * Admits an upload from its PNG header alone, so the whole file is only read into memory
+     * once the permit is held
+     */
+    private AdmissionControlService.Permit admit(MultipartFile imageFile) throws IOException {
+        byte[] header;
+        try (InputStream in = imageFile.getInputStream()) {
+            header = in.readNBytes(AdmissionControlService.PNG_HEADER_LENGTH);
+        }
+        return admissionControlService.acquire(header, imageFile.getSize());
+    }
+    
     /**
      * Verifies text integrity without extraction
      */
     public boolean verifyTextIntegrity(String text, String transactionHash) {
         try {
             String textHash = steganographyUtil.generateSHA256(text);
-            String blockchainHash = blockchainService.getHashFromBlockchain(transactionHash);
+            String blockchainHash = anchorIndexService.getAnchoredHash(transactionHash);
             
             return textHash.equals(blockchainHash);
         } catch (Exception e) {
@@ -0,0 +1,94 @@
+package com.steganography.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Keyed pseudo-random permutation of [0, domain), computed on the fly.
+ *
+ * A balanced Feistel network is a bijection on the smallest even-bit power of two covering
+ * the domain; values that land outside the domain are re-encrypted until they fall inside
+ * (cycle walking), which keeps the result a permutation of the domain itself. No index
+ * table is stored, so each position costs O(1) memory and can be computed independently.
+ */
+public final class FeistelPermutation {
+
+    private static final int ROUNDS = 6;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long domain;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelPermutation(long domain, String key) {
+        if (domain <= 0) {
+            throw new IllegalArgumentException("Permutation domain must be positive");
+        }
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Permutation key must not be empty");
+        }
+
+        this.domain = domain;
+
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(domain - 1, 1));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+
+        ByteBuffer seed = ByteBuffer.wrap(sha256(key));
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = mix64(seed.getLong((i % 4) * Long.BYTES) + i * GOLDEN_GAMMA);
+        }
+    }
+
+    public long domain() {
+        return domain;
+    }
+
+    /**
+     * Maps an index in [0, domain) to its permuted position in [0, domain)
+     */
+    public long permute(long index) {
+        if (index < 0 || index >= domain) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside permutation domain " + domain);
+        }
+
+        // The Feistel domain is less than 4x the target domain, so this loops fewer than 4 times on average
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= domain);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+
+        for (long roundKey : roundKeys) {
+            long next = left ^ (mix64(right ^ roundKey) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /**
+     * SplitMix64 finalizer, used as the Feistel round function
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static byte[] sha256(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.steganography.util;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * PNG encoder backed by the JDK ImageIO writer. The compression level is honoured;
+ * the filter setting is not, as the JDK writer always filters adaptively.
+ */
+@Component
+public class ImageIoPngEncoder implements PngEncoder {
+
+    @Override
+    public byte[] encode(BufferedImage image, PngEncodeOptions options) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(baos)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            // The JDK writer maps quality q to deflate level 9 - round(9 * q)
+            param.setCompressionQuality(1.0f - options.getCompressionLevel() / 9.0f);
+
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+}
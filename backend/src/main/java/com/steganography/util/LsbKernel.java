@@ -0,0 +1,57 @@
+package com.steganography.util;
+
+/**
+ * Moves payload bits in and out of channel LSBs.
+ *
+ * Channels are raw bytes, one per colour sample (R, G, B of each pixel in raster order).
+ * Payload bits go MSB first, one bit per channel, so payload byte i occupies channels
+ * [8i, 8i + 8).
+ */
+public interface LsbKernel {
+
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Writes the bits of payload[payloadOffset, payloadOffset + length) into the LSBs of
+     * channels[channelOffset, channelOffset + 8 * length), leaving the other bits as they are
+     */
+    void embed(byte[] payload, int payloadOffset, int length, byte[] channels, int channelOffset);
+
+    /**
+     * Gathers the LSBs of channels[channelOffset, channelOffset + 8 * length) into
+     * out[outOffset, outOffset + length)
+     */
+    void extract(byte[] channels, int channelOffset, byte[] out, int outOffset, int length);
+
+    String name();
+
+    /**
+     * Kernel for the given name: "scalar", "vector", or "auto" for the vector kernel when
+     * the JVM was started with {@code --add-modules jdk.incubator.vector}, scalar otherwise
+     */
+    static LsbKernel forName(String name) {
+        if ("scalar".equalsIgnoreCase(name)) {
+            return new ScalarLsbKernel();
+        }
+
+        boolean vectorAvailable = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+        if (!vectorAvailable) {
+            if ("vector".equalsIgnoreCase(name)) {
+                throw new IllegalStateException("Vector LSB kernel requires --add-modules " + VECTOR_MODULE);
+            }
+            return new ScalarLsbKernel();
+        }
+
+        // Loaded reflectively so the class never links against the module when it is absent
+        try {
+            return (LsbKernel) Class.forName("com.steganography.util.VectorLsbKernel", true, LsbKernel.class.getClassLoader())
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if ("vector".equalsIgnoreCase(name)) {
+                throw new IllegalStateException("Vector LSB kernel could not be loaded", e);
+            }
+            return new ScalarLsbKernel();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.steganography.util;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * PNG encoder that deflates the image in parallel, pigz-style.
+ *
+ * Scanlines are filtered and split into row chunks. Each chunk is deflated independently as
+ * raw deflate, primed with the last 32 KiB of the previous chunk as dictionary and ended
+ * with a sync flush, so the compressed chunks concatenate into one valid zlib stream. The
+ * stream's Adler-32 is combined from the per-chunk checksums.
+ */
+@Component
+public class ParallelPngEncoder implements PngEncoder {
+
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int ADLER_BASE = 65521;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+
+    private final ExecutorService workers;
+    private final int chunkBytes;
+
+    public ParallelPngEncoder(@Value("${steganography.png.encoder-threads:0}") int threads,
+                              @Value("${steganography.png.chunk-size-kb:256}") int chunkSizeKb) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "png-deflate-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkBytes = Math.max(chunkSizeKb, 1) * 1024;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    @Override
+    public byte[] encode(BufferedImage image, PngEncodeOptions options) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        int bytesPerPixel = hasAlpha ? 4 : 3;
+        int rowBytes = width * bytesPerPixel;
+
+        int rowsPerChunk = Math.max(1, chunkBytes / (rowBytes + 1));
+        int chunkCount = (height + rowsPerChunk - 1) / rowsPerChunk;
+
+        // Pass 1: filter scanlines; every chunk reads the raw row above it, so chunks are independent
+        List<Callable<byte[]>> filterTasks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int startRow = chunk * rowsPerChunk;
+            int endRow = Math.min(height, startRow + rowsPerChunk);
+            filterTasks.add(() -> filterRows(image, startRow, endRow, bytesPerPixel, options.getFilter()));
+        }
+        List<byte[]> filtered = runAll(filterTasks);
+
+        // Pass 2: deflate chunks, each primed with the tail of its predecessor
+        List<Callable<DeflatedChunk>> deflateTasks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            byte[] data = filtered.get(chunk);
+            byte[] previous = chunk > 0 ? filtered.get(chunk - 1) : null;
+            boolean last = chunk == chunkCount - 1;
+            deflateTasks.add(() -> deflateChunk(data, previous, last, options.getCompressionLevel()));
+        }
+        List<DeflatedChunk> deflated = runAll(deflateTasks);
+
+        long adler = 1;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            adler = combineAdler32(adler, deflated.get(chunk).adler, filtered.get(chunk).length);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(PNG_SIGNATURE);
+        writeChunk(out, "IHDR", header(width, height, hasAlpha));
+
+        // One IDAT per deflated chunk, with the zlib header first and the Adler-32 trailer last
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            byte[] data = deflated.get(chunk).data;
+            if (chunk == 0) {
+                data = concat(zlibHeader(options.getCompressionLevel()), data);
+            }
+            if (chunk == chunkCount - 1) {
+                data = concat(data, intToBytes((int) adler));
+            }
+            writeChunk(out, "IDAT", data);
+        }
+
+        writeChunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+        try {
+            if (tasks.size() == 1) {
+                return List.of(tasks.get(0).call());
+            }
+
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : workers.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to encode PNG", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encoding PNG", e);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to encode PNG", e);
+        }
+    }
+
+    private static byte[] filterRows(BufferedImage image, int startRow, int endRow,
+                                     int bytesPerPixel, PngEncodeOptions.Filter filter) {
+        int width = image.getWidth();
+        int rowBytes = width * bytesPerPixel;
+        int[] argb = new int[width];
+
+        byte[] previous = new byte[rowBytes]; // row above the image is all zeros
+        byte[] current = new byte[rowBytes];
+        if (startRow > 0) {
+            readRow(image, startRow - 1, argb, previous, bytesPerPixel);
+        }
+
+        byte[] out = new byte[(endRow - startRow) * (rowBytes + 1)];
+        byte[][] candidates = filter == PngEncodeOptions.Filter.ADAPTIVE ? new byte[5][rowBytes] : null;
+
+        int offset = 0;
+        for (int y = startRow; y < endRow; y++) {
+            readRow(image, y, argb, current, bytesPerPixel);
+
+            if (candidates != null) {
+                int bestType = FILTER_NONE;
+                long bestScore = Long.MAX_VALUE;
+                for (int type = FILTER_NONE; type <= FILTER_PAETH; type++) {
+                    applyFilter(type, current, previous, bytesPerPixel, candidates[type], 0);
+                    long score = absoluteSum(candidates[type]);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestType = type;
+                    }
+                }
+                out[offset] = (byte) bestType;
+                System.arraycopy(candidates[bestType], 0, out, offset + 1, rowBytes);
+            } else {
+                int type = filterType(filter);
+                out[offset] = (byte) type;
+                applyFilter(type, current, previous, bytesPerPixel, out, offset + 1);
+            }
+            offset += rowBytes + 1;
+
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return out;
+    }
+
+    private static void readRow(BufferedImage image, int y, int[] argb, byte[] row, int bytesPerPixel) {
+        image.getRGB(0, y, argb.length, 1, argb, 0, argb.length);
+        int i = 0;
+        for (int pixel : argb) {
+            row[i++] = (byte) (pixel >> 16);
+            row[i++] = (byte) (pixel >> 8);
+            row[i++] = (byte) pixel;
+            if (bytesPerPixel == 4) {
+                row[i++] = (byte) (pixel >>> 24);
+            }
+        }
+    }
+
+    private static int filterType(PngEncodeOptions.Filter filter) {
+        switch (filter) {
+            case SUB:
+                return FILTER_SUB;
+            case UP:
+                return FILTER_UP;
+            case AVERAGE:
+                return FILTER_AVERAGE;
+            case PAETH:
+                return FILTER_PAETH;
+            default:
+                return FILTER_NONE;
+        }
+    }
+
+    private static void applyFilter(int type, byte[] row, byte[] above, int bpp, byte[] out, int offset) {
+        for (int i = 0; i < row.length; i++) {
+            int x = row[i] & 0xFF;
+            int a = i >= bpp ? row[i - bpp] & 0xFF : 0;
+            int b = above[i] & 0xFF;
+            int c = i >= bpp ? above[i - bpp] & 0xFF : 0;
+
+            int predictor;
+            switch (type) {
+                case FILTER_SUB:
+                    predictor = a;
+                    break;
+                case FILTER_UP:
+                    predictor = b;
+                    break;
+                case FILTER_AVERAGE:
+                    predictor = (a + b) >>> 1;
+                    break;
+                case FILTER_PAETH:
+                    predictor = paeth(a, b, c);
+                    break;
+                default:
+                    predictor = 0;
+            }
+            out[offset + i] = (byte) (x - predictor);
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    private static long absoluteSum(byte[] filtered) {
+        long sum = 0;
+        for (byte value : filtered) {
+            sum += Math.abs(value);
+        }
+        return sum;
+    }
+
+    private static DeflatedChunk deflateChunk(byte[] data, byte[] previous, boolean last, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (previous != null) {
+                int length = Math.min(DICTIONARY_SIZE, previous.length);
+                deflater.setDictionary(previous, previous.length - length, length);
+            }
+            deflater.setInput(data);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // Sync flush ends the chunk on a byte boundary without a final block
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    out.write(buffer, 0, written);
+                } while (written == buffer.length || !deflater.needsInput());
+            }
+
+            Adler32 adler = new Adler32();
+            adler.update(data);
+            return new DeflatedChunk(out.toByteArray(), adler.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Adler-32 of the concatenation of two blocks, as zlib's adler32_combine
+     */
+    private static long combineAdler32(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum2 >= ((long) ADLER_BASE << 1)) {
+            sum2 -= ((long) ADLER_BASE << 1);
+        }
+        if (sum2 >= ADLER_BASE) {
+            sum2 -= ADLER_BASE;
+        }
+        return sum1 | (sum2 << 16);
+    }
+
+    private static byte[] zlibHeader(int level) {
+        int compressionMethod = 0x78; // deflate, 32 KiB window
+        int levelFlag = level < 2 ? 0 : level < 6 ? 1 : level == 6 ? 2 : 3;
+        int flags = levelFlag << 6;
+        flags += 31 - ((compressionMethod << 8) + flags) % 31;
+        return new byte[] {(byte) compressionMethod, (byte) flags};
+    }
+
+    private static byte[] header(int width, int height, boolean hasAlpha) {
+        byte[] header = new byte[13];
+        System.arraycopy(intToBytes(width), 0, header, 0, 4);
+        System.arraycopy(intToBytes(height), 0, header, 4, 4);
+        header[8] = 8;                           // bit depth
+        header[9] = (byte) (hasAlpha ? 6 : 2);   // truecolour with / without alpha
+        header[10] = 0;                          // deflate
+        header[11] = 0;                          // adaptive filtering
+        header[12] = 0;                          // no interlace
+        return header;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        out.write(intToBytes(data.length));
+        out.write(typeBytes);
+        out.write(data);
+        out.write(intToBytes((int) crc.getValue()));
+    }
+
+    private static byte[] intToBytes(int value) {
+        return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static final class DeflatedChunk {
+        private final byte[] data;
+        private final long adler;
+
+        DeflatedChunk(byte[] data, long adler) {
+            this.data = data;
+            this.adler = adler;
+        }
+    }
+}
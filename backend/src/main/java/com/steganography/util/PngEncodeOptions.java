@@ -0,0 +1,58 @@
+package com.steganography.util;
+
+import java.util.Locale;
+
+/**
+ * Per-request settings for encoding the stego PNG
+ */
+public class PngEncodeOptions {
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    /**
+     * PNG scanline filter heuristic. ADAPTIVE picks, per row, the filter with the
+     * smallest sum of absolute differences.
+     */
+    public enum Filter {
+        NONE, SUB, UP, AVERAGE, PAETH, ADAPTIVE
+    }
+
+    private final int compressionLevel;
+    private final Filter filter;
+
+    public PngEncodeOptions(int compressionLevel, Filter filter) {
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        this.compressionLevel = compressionLevel;
+        this.filter = filter;
+    }
+
+    public static PngEncodeOptions defaults() {
+        return new PngEncodeOptions(DEFAULT_COMPRESSION_LEVEL, Filter.ADAPTIVE);
+    }
+
+    /**
+     * Builds options from optional request parameters, falling back to defaults
+     */
+    public static PngEncodeOptions of(Integer compressionLevel, String filter) {
+        Filter parsedFilter = Filter.ADAPTIVE;
+        if (filter != null && !filter.isBlank()) {
+            try {
+                parsedFilter = Filter.valueOf(filter.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown PNG filter: " + filter);
+            }
+        }
+        return new PngEncodeOptions(
+            compressionLevel != null ? compressionLevel : DEFAULT_COMPRESSION_LEVEL, parsedFilter);
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+}
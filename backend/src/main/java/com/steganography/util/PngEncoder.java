@@ -0,0 +1,12 @@
+package com.steganography.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Encodes the stego image as PNG
+ */
+public interface PngEncoder {
+
+    byte[] encode(BufferedImage image, PngEncodeOptions options) throws IOException;
+}
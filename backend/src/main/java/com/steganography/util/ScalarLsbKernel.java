@@ -0,0 +1,36 @@
+package com.steganography.util;
+
+/**
+ * Branch-free scalar LSB kernel. Used on JVMs without the Vector API and for the tails the
+ * vector kernel cannot cover with full lanes.
+ */
+public class ScalarLsbKernel implements LsbKernel {
+
+    @Override
+    public void embed(byte[] payload, int payloadOffset, int length, byte[] channels, int channelOffset) {
+        for (int i = 0; i < length; i++) {
+            int value = payload[payloadOffset + i];
+            int base = channelOffset + 8 * i;
+            for (int bit = 0; bit < 8; bit++) {
+                channels[base + bit] = (byte) ((channels[base + bit] & 0xFE) | ((value >>> (7 - bit)) & 1));
+            }
+        }
+    }
+
+    @Override
+    public void extract(byte[] channels, int channelOffset, byte[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int base = channelOffset + 8 * i;
+            int value = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                value = (value << 1) | (channels[base + bit] & 1);
+            }
+            out[outOffset + i] = (byte) value;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -1,24 +1,55 @@
 package com.steganography.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 @Component
 public class SteganographyUtil {
     
     private static final String DELIMITER = "###END###";
+    private static final int EXTRACT_FIRST_BLOCK_PIXELS = 4096;
+    private static final int EXTRACT_MAX_BLOCK_ROWS = 256;
+    
+    @Autowired
+    private ParallelPngEncoder parallelPngEncoder;
+    
+    @Autowired
+    private ImageIoPngEncoder imageIoPngEncoder;
+    
+    @Value("${steganography.png.encoder:auto}")
+    private String pngEncoderName;
+    
+    @Value("${steganography.png.parallel-min-cpus:3}")
+    private int parallelMinCpus;
+    
+    private final LsbKernel lsbKernel;
+    
+    public SteganographyUtil(@Value("${steganography.lsb.kernel:auto}") String lsbKernelName) {
+        this.lsbKernel = LsbKernel.forName(lsbKernelName);
+    }
     
     /**
-     * Hides text in a PNG image using LSB steganography
+     * Hides text in a PNG image using LSB steganography: keyed scatter embedding, or sequential
+     * when no key is given. The result is encoded with the configured PNG encoder and the given
+     * options.
      */
-    public byte[] hideText(byte[] imageBytes, String text) throws IOException {
+    public byte[] hideText(byte[] imageBytes, String text, String key, PngEncodeOptions options) throws IOException {
         BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
         String textWithDelimiter = text + DELIMITER;
         byte[] textBytes = textWithDelimiter.getBytes();
@@ -27,147 +58,284 @@ public class SteganographyUtil {
         int height = image.getHeight();
         
         // Check if image can hold the text
-        int maxCapacity = (width * height * 3) / 8; // 3 channels, 1 bit per channel
+        long maxCapacity = ((long) width * height * 3) / 8; // 3 channels, 1 bit per channel
         if (textBytes.length > maxCapacity) {
             throw new IllegalArgumentException("Text too long for image capacity");
         }
         
-        int textIndex = 0;
-        int bitIndex = 0;
+        if (key == null || key.isBlank()) {
+            embedSequential(image, textBytes);
+        } else {
+            embedScattered(image, textBytes, key);
+        }
         
-        outerLoop:
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (textIndex >= textBytes.length) {
-                    break outerLoop;
-                }
-                
-                int pixel = image.getRGB(x, y);
-                int red = (pixel >> 16) & 0xFF;
-                int green = (pixel >> 8) & 0xFF;
-                int blue = pixel & 0xFF;
-                
-                // Modify LSB of red channel
-                if (textIndex < textBytes.length) {
-                    int bit = (textBytes[textIndex] >> (7 - bitIndex)) & 1;
-                    red = (red & 0xFE) | bit;
-                    bitIndex++;
-                    
-                    if (bitIndex == 8) {
-                        bitIndex = 0;
-                        textIndex++;
-                    }
-                }
-                
-                // Modify LSB of green channel
-                if (textIndex < textBytes.length && bitIndex < 8) {
-                    int bit = (textBytes[textIndex] >> (7 - bitIndex)) & 1;
-                    green = (green & 0xFE) | bit;
-                    bitIndex++;
-                    
-                    if (bitIndex == 8) {
-                        bitIndex = 0;
-                        textIndex++;
-                    }
-                }
-                
-                // Modify LSB of blue channel
-                if (textIndex < textBytes.length && bitIndex < 8) {
-                    int bit = (textBytes[textIndex] >> (7 - bitIndex)) & 1;
-                    blue = (blue & 0xFE) | bit;
-                    bitIndex++;
-                    
-                    if (bitIndex == 8) {
-                        bitIndex = 0;
-                        textIndex++;
-                    }
+        return pngEncoder().encode(image, options);
+    }
+    
+    /**
+     * Sequential embedding: payload bits fill the R, G, B channel LSBs from the top-left pixel
+     * on. The touched pixels are copied out as raw channel bytes and run through the LSB
+     * kernel in one pass.
+     */
+    private void embedSequential(BufferedImage image, byte[] textBytes) {
+        int width = image.getWidth();
+        int pixels = (int) ((textBytes.length * 8L + 2) / 3);
+        int rows = (pixels + width - 1) / width;
+        
+        byte[] channels = new byte[rows * width * 3];
+        readChannels(image, 0, rows, channels, 0);
+        
+        lsbKernel.embed(textBytes, 0, textBytes.length, channels, 0);
+        
+        writeChannels(image, pixels, channels);
+    }
+    
+    /**
+     * Extracts hidden text from a PNG image
+     */
+    public String extractText(byte[] imageBytes) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        
+        int width = image.getWidth();
+        int height = image.getHeight();
+        
+        byte[] delimiterBytes = DELIMITER.getBytes();
+        byte[] buffer = new byte[256];
+        int length = 0;
+        
+        // Rows are read in growing blocks so short messages stop early; channels left over
+        // from a block (fewer than 8) carry into the next one
+        int blockRows = Math.max(1, Math.min(height, EXTRACT_FIRST_BLOCK_PIXELS / width));
+        byte[] channels = new byte[0];
+        int carry = 0;
+        
+        for (int y = 0; y < height; y += blockRows, blockRows = Math.min(blockRows * 2, EXTRACT_MAX_BLOCK_ROWS)) {
+            int rows = Math.min(blockRows, height - y);
+            int available = carry + rows * width * 3;
+            
+            if (channels.length < available) {
+                channels = Arrays.copyOf(channels, available);
+            }
+            readChannels(image, y, rows, channels, carry);
+            int count = available / 8;
+            
+            if (buffer.length < length + count) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+            }
+            lsbKernel.extract(channels, 0, buffer, length, count);
+            
+            for (int end = length + 1; end <= length + count; end++) {
+                if (endsWith(buffer, end, delimiterBytes)) {
+                    // Bytes map to chars one-to-one, as the per-bit loop did
+                    return new String(buffer, 0, end - delimiterBytes.length, StandardCharsets.ISO_8859_1);
                 }
-                
-                int newPixel = (red << 16) | (green << 8) | blue;
-                image.setRGB(x, y, newPixel);
             }
+            length += count;
+            
+            carry = available - count * 8;
+            System.arraycopy(channels, count * 8, channels, 0, carry);
         }
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "PNG", baos);
-        return baos.toByteArray();
+        throw new IllegalArgumentException("No hidden text found or image corrupted");
     }
     
     /**
-     * Extracts hidden text from a PNG image
+     * Keyed scatter embedding. Payload bits are spread over the whole image: bit slot i
+     * (three bits per pixel) lands in pixel {@code perm(i)} of a Feistel permutation keyed
+     * by {@code key}.
      */
-    public String extractText(byte[] imageBytes) throws IOException {
+    private void embedScattered(BufferedImage image, byte[] textBytes, String key) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        
+        FeistelPermutation permutation = new FeistelPermutation((long) width * height, key);
+        long totalBits = (long) textBytes.length * 8;
+        
+        // Each pixel position depends only on its slot index, so slots can be written in any order
+        for (long bit = 0, slot = 0; bit < totalBits; slot++) {
+            long position = permutation.permute(slot);
+            int x = (int) (position % width);
+            int y = (int) (position / width);
+            
+            int pixel = image.getRGB(x, y);
+            for (int shift = 16; shift >= 0 && bit < totalBits; shift -= 8, bit++) {
+                int payloadBit = (textBytes[(int) (bit >>> 3)] >> (7 - (int) (bit & 7))) & 1;
+                pixel = (pixel & ~(1 << shift)) | (payloadBit << shift);
+            }
+            image.setRGB(x, y, pixel);
+        }
+    }
+    
+    /**
+     * Extracts text hidden with {@link #hideText(byte[], String, String, PngEncodeOptions)}. Only the pixels the
+     * key maps the payload to are read, stopping at the delimiter.
+     */
+    public String extractText(byte[] imageBytes, String key) throws IOException {
+        if (key == null || key.isBlank()) {
+            return extractText(imageBytes);
+        }
+        
         BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
         
         int width = image.getWidth();
         int height = image.getHeight();
         
-        StringBuilder textBuilder = new StringBuilder();
-        int bitIndex = 0;
+        FeistelPermutation permutation = new FeistelPermutation((long) width * height, key);
+        byte[] delimiterBytes = DELIMITER.getBytes();
+        byte[] buffer = new byte[256];
+        int length = 0;
         int currentByte = 0;
+        int bitIndex = 0;
         
-        outerLoop:
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = image.getRGB(x, y);
-                int red = (pixel >> 16) & 0xFF;
-                int green = (pixel >> 8) & 0xFF;
-                int blue = pixel & 0xFF;
-                
-                // Extract bit from red channel
-                int bit = red & 1;
-                currentByte = (currentByte << 1) | bit;
-                bitIndex++;
-                
-                if (bitIndex == 8) {
-                    textBuilder.append((char) currentByte);
-                    if (textBuilder.toString().endsWith(DELIMITER)) {
-                        break outerLoop;
-                    }
-                    currentByte = 0;
-                    bitIndex = 0;
+        for (long slot = 0; slot < permutation.domain(); slot++) {
+            long position = permutation.permute(slot);
+            int pixel = image.getRGB((int) (position % width), (int) (position / width));
+            
+            for (int shift = 16; shift >= 0; shift -= 8) {
+                currentByte = (currentByte << 1) | ((pixel >> shift) & 1);
+                if (++bitIndex < 8) {
+                    continue;
                 }
                 
-                // Extract bit from green channel
-                if (bitIndex < 8) {
-                    bit = green & 1;
-                    currentByte = (currentByte << 1) | bit;
-                    bitIndex++;
-                    
-                    if (bitIndex == 8) {
-                        textBuilder.append((char) currentByte);
-                        if (textBuilder.toString().endsWith(DELIMITER)) {
-                            break outerLoop;
-                        }
-                        currentByte = 0;
-                        bitIndex = 0;
-                    }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
                 }
+                buffer[length++] = (byte) currentByte;
+                currentByte = 0;
+                bitIndex = 0;
                 
-                // Extract bit from blue channel
-                if (bitIndex < 8) {
-                    bit = blue & 1;
-                    currentByte = (currentByte << 1) | bit;
-                    bitIndex++;
-                    
-                    if (bitIndex == 8) {
-                        textBuilder.append((char) currentByte);
-                        if (textBuilder.toString().endsWith(DELIMITER)) {
-                            break outerLoop;
-                        }
-                        currentByte = 0;
-                        bitIndex = 0;
-                    }
+                if (endsWith(buffer, length, delimiterBytes)) {
+                    // Same byte-to-char mapping as the sequential extractor
+                    return new String(buffer, 0, length - delimiterBytes.length, StandardCharsets.ISO_8859_1);
                 }
             }
         }
         
-        String extractedText = textBuilder.toString();
-        if (extractedText.endsWith(DELIMITER)) {
-            return extractedText.substring(0, extractedText.length() - DELIMITER.length());
+        throw new IllegalArgumentException("No hidden text found or image corrupted");
+    }
+    
+    /**
+     * Encoder named by configuration. "auto" uses the parallel encoder only with enough CPUs;
+     * on fewer it is slower than the JDK writer.
+     */
+    private PngEncoder pngEncoder() {
+        if ("imageio".equalsIgnoreCase(pngEncoderName)) {
+            return imageIoPngEncoder;
+        }
+        if ("parallel".equalsIgnoreCase(pngEncoderName)) {
+            return parallelPngEncoder;
         }
+        return Runtime.getRuntime().availableProcessors() >= parallelMinCpus ? parallelPngEncoder : imageIoPngEncoder;
+    }
+    
+    /**
+     * Copies the R, G, B samples of whole rows into channels, starting at offset
+     */
+    private static void readChannels(BufferedImage image, int y, int rows, byte[] channels, int offset) {
+        int width = image.getWidth();
         
-        throw new IllegalArgumentException("No hidden text found or image corrupted");
+        if (hasInterleavedRgb(image)) {
+            WritableRaster raster = image.getRaster();
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            int[] bands = model.getBandOffsets();
+            int pixelStride = model.getPixelStride();
+            
+            int c = offset;
+            for (int row = y; row < y + rows; row++) {
+                for (int x = 0, p = row * model.getScanlineStride(); x < width; x++, p += pixelStride, c += 3) {
+                    channels[c] = data[p + bands[0]];
+                    channels[c + 1] = data[p + bands[1]];
+                    channels[c + 2] = data[p + bands[2]];
+                }
+            }
+        } else {
+            int[] argb = image.getRGB(0, y, width, rows, null, 0, width);
+            for (int i = 0, c = offset; i < argb.length; i++, c += 3) {
+                channels[c] = (byte) (argb[i] >> 16);
+                channels[c + 1] = (byte) (argb[i] >> 8);
+                channels[c + 2] = (byte) argb[i];
+            }
+        }
+    }
+    
+    /**
+     * Writes channels back to the first pixels of the image in raster order. The pixels are
+     * stored as plain RGB, so any alpha becomes 0, as the per-pixel loop always did.
+     */
+    private static void writeChannels(BufferedImage image, int pixels, byte[] channels) {
+        int width = image.getWidth();
+        
+        if (hasInterleavedRgb(image)) {
+            WritableRaster raster = image.getRaster();
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            int[] bands = model.getBandOffsets();
+            int pixelStride = model.getPixelStride();
+            
+            for (int i = 0, c = 0; i < pixels; i++, c += 3) {
+                int p = (i / width) * model.getScanlineStride() + (i % width) * pixelStride;
+                data[p + bands[0]] = channels[c];
+                data[p + bands[1]] = channels[c + 1];
+                data[p + bands[2]] = channels[c + 2];
+                if (bands.length > 3) {
+                    data[p + bands[3]] = 0;
+                }
+            }
+        } else {
+            int fullRows = pixels / width;
+            int lastRowPixels = pixels % width;
+            int[] rgb = new int[pixels];
+            for (int i = 0, c = 0; i < pixels; i++, c += 3) {
+                rgb[i] = ((channels[c] & 0xFF) << 16) | ((channels[c + 1] & 0xFF) << 8) | (channels[c + 2] & 0xFF);
+            }
+            if (fullRows > 0) {
+                image.setRGB(0, 0, width, fullRows, rgb, 0, width);
+            }
+            if (lastRowPixels > 0) {
+                image.setRGB(0, fullRows, lastRowPixels, 1, rgb, fullRows * width, width);
+            }
+        }
+    }
+    
+    /**
+     * Whether the image stores plain 8-bit sRGB samples, R, G, B (and alpha last), interleaved
+     * in a single byte array. This is what ImageIO decodes RGB and RGBA PNGs to; the samples
+     * are then copied directly instead of going through the colour model.
+     */
+    private static boolean hasInterleavedRgb(BufferedImage image) {
+        ColorModel colorModel = image.getColorModel();
+        WritableRaster raster = image.getRaster();
+        return colorModel instanceof ComponentColorModel
+            && colorModel.getColorSpace().isCS_sRGB()
+            && !colorModel.isAlphaPremultiplied()
+            && colorModel.getNumColorComponents() == 3
+            && raster.getNumBands() == colorModel.getNumComponents()
+            && raster.getDataBuffer() instanceof DataBufferByte
+            && raster.getDataBuffer().getNumBanks() == 1
+            && raster.getDataBuffer().getOffset() == 0
+            && raster.getSampleModel() instanceof PixelInterleavedSampleModel
+            && raster.getSampleModelTranslateX() == 0
+            && raster.getSampleModelTranslateY() == 0;
+    }
+    
+    /**
+     * LSB kernel used for sequential embedding and extraction
+     */
+    public LsbKernel getLsbKernel() {
+        return lsbKernel;
+    }
+    
+    private static boolean endsWith(byte[] buffer, int length, byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length; i++) {
+            if (buffer[length - suffix.length + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
@@ -0,0 +1,124 @@
+package com.steganography.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * LSB kernel on the incubating Vector API, branch-free across full SIMD lanes.
+ *
+ * A vector of L channel bytes carries L / 8 payload bytes. Embedding broadcasts each payload
+ * byte to its 8 lanes, tests lane j against bit (7 - j) and sets the channel LSBs from the
+ * resulting mask. Extraction does the reverse: a mask of the channel LSBs selects each lane's
+ * bit value, and the 8 lanes of every 64-bit group are OR-folded into one byte. Only
+ * compares, blends, shuffles and 64-bit shifts are used, which map to single instructions
+ * on AVX2 and wider. Near the end of the range, where a full vector of payload bytes no
+ * longer fits, the L / 8 bytes of a step are packed into one long and broadcast, and
+ * extracted bytes are read back from the first long lane. Masked byte loads and stores would
+ * do the same, but JDK 17 does not compile them to single instructions on AVX2. Only the
+ * last fewer than L / 8 bytes go through the scalar kernel.
+ *
+ * Needs {@code --add-modules jdk.incubator.vector} at compile and run time; obtain it through
+ * {@link LsbKernel#forName(String)}.
+ */
+public class VectorLsbKernel implements LsbKernel {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = BYTES.withLanes(long.class);
+    private static final int LANES = BYTES.length();
+    private static final int BYTES_PER_VECTOR = LANES / 8;
+
+    /** Lane i reads payload byte i / 8 */
+    private static final VectorShuffle<Byte> SPREAD = VectorShuffle.fromOp(BYTES, i -> i / 8);
+
+    /** Lane i (i < L / 8) reads the low byte of 64-bit group i */
+    private static final VectorShuffle<Byte> COMPACT = VectorShuffle.fromOp(BYTES, i -> (i * 8) % LANES);
+
+    /** Lane i holds the value of payload bit i % 8, MSB first */
+    private static final ByteVector BIT_VALUES = ByteVector.fromArray(BYTES, bitValues(), 0);
+
+    private final ScalarLsbKernel scalar = new ScalarLsbKernel();
+
+    @Override
+    public void embed(byte[] payload, int payloadOffset, int length, byte[] channels, int channelOffset) {
+        int i = 0;
+        // Unmasked payload loads while a full vector still fits inside the range
+        for (; i <= length - LANES; i += BYTES_PER_VECTOR) {
+            embedStep(ByteVector.fromArray(BYTES, payload, payloadOffset + i), channels, channelOffset + 8 * i);
+        }
+        for (; i <= length - BYTES_PER_VECTOR; i += BYTES_PER_VECTOR) {
+            long packed = 0;
+            for (int b = BYTES_PER_VECTOR - 1; b >= 0; b--) {
+                packed = (packed << 8) | (payload[payloadOffset + i + b] & 0xFF);
+            }
+            // Little-endian lane order puts payload byte b in lane b of every long
+            embedStep(LongVector.broadcast(LONGS, packed).reinterpretAsBytes(), channels, channelOffset + 8 * i);
+        }
+        scalar.embed(payload, payloadOffset + i, length - i, channels, channelOffset + 8 * i);
+    }
+
+    @Override
+    public void extract(byte[] channels, int channelOffset, byte[] out, int outOffset, int length) {
+        int i = 0;
+        // Each store writes a full vector; lanes past L / 8 are overwritten by the next step
+        for (; i <= length - LANES; i += BYTES_PER_VECTOR) {
+            extractStep(channels, channelOffset + 8 * i).intoArray(out, outOffset + i);
+        }
+        for (; i <= length - BYTES_PER_VECTOR; i += BYTES_PER_VECTOR) {
+            long packed = extractStep(channels, channelOffset + 8 * i).reinterpretAsLongs().lane(0);
+            for (int b = 0; b < BYTES_PER_VECTOR; b++) {
+                out[outOffset + i + b] = (byte) (packed >>> (8 * b));
+            }
+        }
+        scalar.extract(channels, channelOffset + 8 * i, out, outOffset + i, length - i);
+    }
+
+    /**
+     * Writes the L / 8 payload bytes in the low lanes of the vector into one vector of channels
+     */
+    private static void embedStep(ByteVector payloadBytes, byte[] channels, int channel) {
+        VectorMask<Byte> bits = payloadBytes
+            .rearrange(SPREAD)
+            .and(BIT_VALUES)
+            .compare(VectorOperators.NE, 0);
+
+        ByteVector.fromArray(BYTES, channels, channel)
+            .and((byte) 0xFE)
+            .lanewise(VectorOperators.OR, (byte) 1, bits)
+            .intoArray(channels, channel);
+    }
+
+    /**
+     * Reads one vector of channels; the L / 8 payload bytes end up in the low lanes
+     */
+    private static ByteVector extractStep(byte[] channels, int channel) {
+        VectorMask<Byte> bits = ByteVector.fromArray(BYTES, channels, channel)
+            .and((byte) 1)
+            .compare(VectorOperators.NE, 0);
+
+        LongVector groups = ByteVector.zero(BYTES)
+            .blend(BIT_VALUES, bits)
+            .reinterpretAsLongs();
+        groups = groups.or(groups.lanewise(VectorOperators.LSHR, 32));
+        groups = groups.or(groups.lanewise(VectorOperators.LSHR, 16));
+        groups = groups.or(groups.lanewise(VectorOperators.LSHR, 8));
+
+        return groups.reinterpretAsBytes().rearrange(COMPACT);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + BYTES.vectorBitSize();
+    }
+
+    private static byte[] bitValues() {
+        byte[] values = new byte[LANES];
+        for (int i = 0; i < LANES; i++) {
+            values[i] = (byte) (0x80 >>> (i % 8));
+        }
+        return values;
+    }
+}
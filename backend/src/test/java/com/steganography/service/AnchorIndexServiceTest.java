@@ -0,0 +1,151 @@
+package com.steganography.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.steganography.model.AnchorFollowerState;
+import com.steganography.model.AnchorIndexEntry;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnchorIndexServiceTest {
+
+    private static final String SIGNER_KEY = "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+    private static final String CONTRACT = "0x000000000000000000000000000000000000a11c";
+
+    private StubEthNode node;
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private BlockchainService blockchainService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = new StubEthNode();
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://127.0.0.1:" + address.getPort());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+
+        blockchainService = new BlockchainService(node.url(), SIGNER_KEY, "", "least-loaded",
+            4, 3, 30000, 1000, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(blockchainService, "contractAddress", CONTRACT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+        node.close();
+    }
+
+    @Test
+    void rewindsToForkPointAndReindexesNewBranch() throws IOException {
+        AnchorIndexService index = indexService(64);
+        String first = anchor("aa");
+        node.mine(4);
+        String second = anchor("bb");
+        node.mine(2);
+
+        index.followBlocks();
+        assertThat(entry(first).getBlockNumber()).isEqualTo(1);
+        assertThat(entry(second).getBlockNumber()).isEqualTo(5);
+        assertThat(state().getLastBlockNumber()).isEqualTo(6);
+
+        // Blocks 5 and 6 are replaced; the second anchor moves to the new block 5
+        node.reorg(2);
+
+        index.followBlocks();
+        assertThat(state().getLastBlockNumber()).isEqualTo(4);
+        assertThat(state().getLastBlockHash()).isEqualTo(node.blockHash(4));
+        assertThat(entry(first)).isNotNull();
+        assertThat(entry(second)).isNull();
+
+        index.followBlocks();
+        assertThat(state().getLastBlockNumber()).isEqualTo(node.headBlock());
+        assertThat(entry(second).getBlockNumber()).isEqualTo(5);
+        assertThat(entry(second).getBlockHash()).isEqualTo(node.blockHash(5));
+    }
+
+    @Test
+    void rewindsNoFurtherThanReorgDepth() throws IOException {
+        AnchorIndexService index = indexService(3);
+        String first = anchor("aa");
+        node.mine(5);
+        String second = anchor("bb");
+        node.mine(3);
+
+        index.followBlocks();
+        assertThat(entry(second).getBlockNumber()).isEqualTo(6);
+        assertThat(state().getLastBlockNumber()).isEqualTo(8);
+
+        // Blocks 4 to 8 are replaced, deeper than the three block hashes kept
+        node.reorg(5);
+
+        index.followBlocks();
+        assertThat(state().getLastBlockNumber()).isEqualTo(5);
+        assertThat(state().getLastBlockHash()).isNull();
+        assertThat(entry(second)).isNull();
+
+        // The second anchor is now below the rewind, so it is only found through RPC
+        index.followBlocks();
+        assertThat(state().getLastBlockNumber()).isEqualTo(node.headBlock());
+        assertThat(entry(second)).isNull();
+        assertThat(entry(first)).isNotNull();
+        assertThat(index.getAnchoredHash(second)).isEqualTo("bb");
+    }
+
+    @Test
+    void onlyTheLeaseHolderFollowsBlocks() throws IOException {
+        AnchorIndexService leader = indexService(64);
+        AnchorIndexService follower = indexService(64);
+
+        leader.followBlocks();
+        String transactionHash = anchor("aa");
+        node.mine(1);
+
+        follower.followBlocks();
+        assertThat(entry(transactionHash)).isNull();
+        assertThat(follower.getHeadBlock()).isEqualTo(node.headBlock());
+
+        leader.releaseLease();
+        follower.followBlocks();
+        assertThat(entry(transactionHash)).isNotNull();
+        assertThat(state().getLastBlockNumber()).isEqualTo(node.headBlock());
+    }
+
+    private AnchorIndexService indexService(int reorgDepth) {
+        AnchorIndexService index = new AnchorIndexService();
+        ReflectionTestUtils.setField(index, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(index, "blockchainService", blockchainService);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "startBlock", 0L);
+        ReflectionTestUtils.setField(index, "batchSize", 100);
+        ReflectionTestUtils.setField(index, "reorgDepth", reorgDepth);
+        ReflectionTestUtils.setField(index, "minConfirmations", 1L);
+        ReflectionTestUtils.setField(index, "leaseMs", 30000L);
+        return index;
+    }
+
+    private String anchor(String dataHash) {
+        return blockchainService.storeHashOnBlockchain(dataHash).getTransactionHash();
+    }
+
+    private AnchorIndexEntry entry(String transactionHash) {
+        return mongoTemplate.findOne(AnchorIndexService.transactionQuery(transactionHash), AnchorIndexEntry.class);
+    }
+
+    private AnchorFollowerState state() {
+        return mongoTemplate.findById(AnchorFollowerState.DEFAULT_ID, AnchorFollowerState.class);
+    }
+}
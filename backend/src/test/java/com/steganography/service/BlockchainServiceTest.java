@@ -0,0 +1,116 @@
+package com.steganography.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlockchainServiceTest {
+
+    private static final String SIGNER_KEY = "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+    private static final String CONTRACT = "0x000000000000000000000000000000000000a11c";
+
+    private StubEthNode node;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = new StubEthNode();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    void holdsLaneSlotUntilTransactionIsMined() {
+        BlockchainService blockchainService = blockchainService(1);
+        blockchainService.storeHashOnBlockchain("aa");
+        SignerLane lane = blockchainService.lanes().get(0);
+        assertThat(lane.getPending()).isEqualTo(1);
+        assertThat(lane.getInFlight()).isEqualTo(1);
+
+        assertThatThrownBy(() -> blockchainService.storeHashOnBlockchain("bb"))
+            .hasRootCauseMessage("All signer lanes are at their in-flight limit");
+
+        node.mine(1);
+        blockchainService.reconcileLanes();
+        assertThat(lane.getPending()).isZero();
+        assertThat(lane.getInFlight()).isZero();
+
+        blockchainService.storeHashOnBlockchain("bb");
+        assertThat(lane.getNextNonce()).isEqualTo(2);
+    }
+
+    @Test
+    void resyncsNonceAfterNonceTooLow() throws Exception {
+        BlockchainService blockchainService = blockchainService(4);
+        blockchainService.storeHashOnBlockchain("aa");
+        SignerLane lane = blockchainService.lanes().get(0);
+
+        // The same key sends nonce 1 elsewhere, so the lane's next nonce is already used
+        Credentials credentials = Credentials.create(SIGNER_KEY.substring(2));
+        RawTransaction external = RawTransaction.createTransaction(BigInteger.ONE, BigInteger.ONE,
+            BigInteger.valueOf(21000), CONTRACT, BigInteger.ZERO, "0xff");
+        blockchainService.web3j()
+            .ethSendRawTransaction(Numeric.toHexString(TransactionEncoder.signMessage(external, credentials)))
+            .send();
+        node.mine(1);
+
+        AnchorTransaction anchor = blockchainService.storeHashOnBlockchain("bb");
+        assertThat(anchor.getTransactionHash()).isNotNull();
+        assertThat(lane.getNonceResyncs()).isEqualTo(1);
+        assertThat(lane.getNextNonce()).isEqualTo(3);
+        assertThat(lane.getConsecutiveFailures()).isZero();
+    }
+
+    @Test
+    void resendsTransactionsAfterNonceGap() throws Exception {
+        BlockchainService blockchainService = blockchainService(4);
+        String dropped = blockchainService.storeHashOnBlockchain("aa").getTransactionHash();
+        blockchainService.storeHashOnBlockchain("bb");
+        SignerLane lane = blockchainService.lanes().get(0);
+
+        // The node evicts nonce 0 and keeps nonce 1 queued behind the gap without an error
+        node.drop(lane.getAddress(), 0);
+        node.mine(1);
+        assertThat(node.transactionCount(lane.getAddress(), true)).isZero();
+
+        blockchainService.reconcileLanes();
+        await(() -> node.transactionCount(lane.getAddress(), true) == 2);
+        assertThat(lane.getGapRefills()).isEqualTo(1);
+
+        node.mine(1);
+        blockchainService.reconcileLanes();
+        assertThat(lane.getPending()).isZero();
+        assertThat(lane.getInFlight()).isZero();
+        assertThat(blockchainService.verifyTransactionExists(dropped)).isTrue();
+    }
+
+    private BlockchainService blockchainService(int maxInFlight) {
+        BlockchainService blockchainService = new BlockchainService(node.url(), SIGNER_KEY, "", "least-loaded",
+            maxInFlight, 3, 30000, 200, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(blockchainService, "contractAddress", CONTRACT);
+        return blockchainService;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met within 5 s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.steganography.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.slf4j.LoggerFactory;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Keys;
+import org.web3j.utils.Numeric;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness comparing the default MVC mode with the reactive profile. Starts the packaged jar
+ * once per mode against an in-memory Mongo server and a stub JSON-RPC node that mines a block every
+ * 200 ms, fires bursts of concurrent /hide requests, and reports throughput, latency, heap and RSS
+ * for each burst. Not run by the test suite; see "Reactive Mode" in the README for how to run it.
+ * Arguments: RPC latency in ms (default 100), then burst sizes (default 16 64).
+ */
+public class ServingModeBenchmark {
+
+    private static final String JAR = "target/png-steganography-1.0.0.jar";
+    private static final int PORT = 8099;
+    private static final int LANES = 4;
+    private static final String BOUNDARY = "----stego-benchmark";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newCachedThreadPool())
+        .build();
+
+    public static void main(String[] args) throws Exception {
+        long rpcLatency = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        int[] bursts = args.length > 1
+            ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {16, 64};
+        byte[] image = image(1024, 768);
+
+        ((Logger) LoggerFactory.getLogger("de.bwaldvogel")).setLevel(Level.WARN);
+        StubEthNode node = new StubEthNode();
+        node.setLatency(rpcLatency);
+        ScheduledExecutorService miner = Executors.newSingleThreadScheduledExecutor();
+        miner.scheduleWithFixedDelay(() -> node.mine(1), 200, 200, TimeUnit.MILLISECONDS);
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongo.bind();
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < LANES; i++) {
+            ECKeyPair keyPair = Keys.createEcKeyPair();
+            keys.add(Numeric.toHexStringWithPrefixZeroPadded(keyPair.getPrivateKey(), 64));
+        }
+
+        System.out.printf("1024 x 768 PNG, RPC latency %d ms, %d signer lanes, %d CPUs%n%n",
+            rpcLatency, LANES, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %6s %6s %5s %5s %7s %8s %8s %9s %9s %9s %9s%n", "mode", "burst", "ok", "429",
+            "fback", "ok/s", "p50 ms", "max ms", "heap MB", "commit MB", "RSS MB", "peak RSS");
+        try {
+            for (String mode : new String[] {"mvc", "reactive"}) {
+                Process app = start(mode, node.url(), "mongodb://127.0.0.1:" + mongoAddress.getPort() + "/stego",
+                    String.join(",", keys));
+                try {
+                    awaitHealthy(app);
+                    burst(image, 8); // warm-up
+                    for (int requests : bursts) {
+                        Burst result = burst(image, requests);
+                        long[] rss = rss(app.pid());
+                        System.out.printf("%-9s %6d %6d %5d %5d %7.1f %8d %8d %9.0f %9.0f %9d %9d%n", mode, requests,
+                            result.ok, result.rejected, result.fallbacks, result.ok / result.seconds,
+                            result.medianMillis, result.maxMillis, heapMb("jvm.memory.used"),
+                            heapMb("jvm.memory.committed"), rss[0] / 1024, rss[1] / 1024);
+                    }
+                } finally {
+                    app.destroy();
+                    app.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            miner.shutdownNow();
+            node.close();
+            mongo.shutdown();
+        }
+        System.out.println("\nheap: used / committed after the burst; RSS: resident now / peak since start (VmRSS / VmHWM)");
+        System.exit(0);
+    }
+
+    private static Process start(String mode, String rpcUrl, String mongoUri, String keys) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Xmx512m", "--add-modules", "jdk.incubator.vector",
+            "-jar", JAR,
+            "--server.port=" + PORT,
+            "--spring.data.mongodb.uri=" + mongoUri,
+            "--blockchain.rpc.url=" + rpcUrl,
+            "--blockchain.signer.keys=" + keys,
+            "--blockchain.signer.reconcile-interval-ms=500"));
+        if (mode.equals("reactive")) {
+            command.add("--spring.profiles.active=reactive");
+        }
+        return new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(new File("target/benchmark-" + mode + ".log"))
+            .start();
+    }
+
+    private static void awaitHealthy(Process app) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("Application exited, see target/benchmark-*.log");
+            }
+            try {
+                if (get("/actuator/health").statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application did not become healthy within 2 minutes");
+    }
+
+    private static Burst burst(byte[] image, int requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        try {
+            long start = System.nanoTime();
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                String text = "message " + i + " " + System.nanoTime();
+                futures.add(pool.submit(() -> hide(image, text)));
+            }
+
+            Burst result = new Burst();
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long[] outcome = futures.get(i).get();
+                latencies[i] = outcome[0];
+                if (outcome[1] == 200) {
+                    result.ok++;
+                } else if (outcome[1] == 429) {
+                    result.rejected++;
+                }
+                result.fallbacks += outcome[2];
+            }
+            result.seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            result.medianMillis = latencies[requests / 2];
+            result.maxMillis = latencies[requests - 1];
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the latency in ms, the status code and 1 if the anchor fell back
+     */
+    private static long[] hide(byte[] image, String text) throws IOException, InterruptedException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"image\"; filename=\"load.png\"\r\n"
+            + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"text\"\r\n\r\n" + text
+            + "\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + PORT + "/api/steganography/hide"))
+            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+            .build();
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long fallback = 0;
+        if (response.statusCode() == 200) {
+            JsonNode hash = mapper.readTree(response.body()).path("record").path("transactionHash");
+            fallback = hash.asText().startsWith("FALLBACK") ? 1 : 0;
+        }
+        return new long[] {millis, response.statusCode(), fallback};
+    }
+
+    private static double heapMb(String metric) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get("/actuator/metrics/" + metric + "?tag=area:heap");
+        return mapper.readTree(response.body()).path("measurements").path(0).path("value").asDouble() / (1024 * 1024);
+    }
+
+    /**
+     * VmRSS and VmHWM of a process in KB, from /proc (Linux only)
+     */
+    private static long[] rss(long pid) throws IOException {
+        long[] rss = new long[2];
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                rss[0] = Long.parseLong(line.replaceAll("\\D", ""));
+            } else if (line.startsWith("VmHWM:")) {
+                rss[1] = Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return rss;
+    }
+
+    private static HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + PORT + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * A noisy gradient, so the payload lands in a photo-like image
+     */
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(8);
+                int red = Math.min(255, x * 255 / width + noise);
+                int green = Math.min(255, y * 255 / height + noise);
+                image.setRGB(x, y, red << 16 | green << 8 | noise);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static final class Burst {
+        int ok;
+        int rejected;
+        int fallbacks;
+        double seconds;
+        long medianMillis;
+        long maxMillis;
+    }
+}
@@ -0,0 +1,349 @@
+package com.steganography.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.SignedRawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process JSON-RPC stub of an Ethereum node. Blocks are only mined on request. Like a real
+ * node, it queues transactions whose nonce is ahead of the account's pending count instead of
+ * rejecting them, and leaves them out of the pending count and blocks until the gap is filled.
+ * The last blocks can be replaced to simulate a chain reorganisation, and every call can be
+ * delayed to simulate a remote node.
+ */
+class StubEthNode implements AutoCloseable {
+
+    private static final String GAS_PRICE = "0x3b9aca00";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final List<ObjectNode> pool = new ArrayList<>();
+    private final Map<String, ObjectNode> transactions = new HashMap<>();
+    private final Map<String, Long> minedCounts = new HashMap<>();
+    private int branch;
+    private volatile long latencyMillis;
+
+    StubEthNode() throws IOException {
+        mine(1); // genesis
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Delays every response, outside the node's lock so concurrent calls overlap
+     */
+    void setLatency(long millis) {
+        latencyMillis = millis;
+    }
+
+    /**
+     * Mines blocks, each taking every executable pooled transaction
+     */
+    synchronized void mine(int count) {
+        for (int i = 0; i < count; i++) {
+            long number = blocks.size();
+            String parentHash = number == 0 ? "0x" + "0".repeat(64) : blocks.get((int) number - 1).hash;
+            Block block = new Block(number, Hash.sha3String(parentHash + number + "/" + branch), parentHash);
+
+            List<ObjectNode> executable = executable();
+            pool.removeAll(executable);
+            for (ObjectNode transaction : executable) {
+                transaction.put("blockHash", block.hash);
+                transaction.put("blockNumber", hex(number));
+                minedCounts.merge(transaction.get("from").asText(), 1L, Long::sum);
+                block.transactions.add(transaction);
+            }
+            blocks.add(block);
+        }
+    }
+
+    /**
+     * Replaces the last blocks with a longer branch. Their transactions go back to the pool and
+     * are mined again in the first block of the new branch.
+     */
+    synchronized void reorg(int depth) {
+        branch++;
+        List<ObjectNode> orphaned = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            Block block = blocks.remove(blocks.size() - 1);
+            orphaned.addAll(block.transactions);
+        }
+        for (ObjectNode transaction : orphaned) {
+            minedCounts.merge(transaction.get("from").asText(), -1L, Long::sum);
+            transaction.putNull("blockHash");
+            transaction.putNull("blockNumber");
+        }
+        pool.addAll(orphaned);
+        mine(depth + 1);
+    }
+
+    /**
+     * Drops a pooled transaction, as a node does when it evicts one from its mempool
+     */
+    synchronized void drop(String address, long nonce) {
+        pool.removeIf(transaction -> transaction.get("from").asText().equalsIgnoreCase(address)
+            && nonceOf(transaction) == nonce);
+    }
+
+    synchronized long transactionCount(String address, boolean pending) {
+        String from = address.toLowerCase();
+        long count = minedCounts.getOrDefault(from, 0L);
+        if (pending) {
+            while (hasPooled(from, count)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    synchronized String blockHash(long number) {
+        return blocks.get((int) number).hash;
+    }
+
+    synchronized long headBlock() {
+        return blocks.size() - 1;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode request = mapper.readTree(exchange.getRequestBody());
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", request.get("id"));
+        try {
+            synchronized (this) {
+                response.set("result", call(request.get("method").asText(), request.get("params")));
+            }
+        } catch (RpcException e) {
+            ObjectNode error = response.putObject("error");
+            error.put("code", -32000);
+            error.put("message", e.getMessage());
+        }
+
+        byte[] body = mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private JsonNode call(String method, JsonNode params) {
+        switch (method) {
+            case "eth_blockNumber":
+                return mapper.valueToTree(hex(blocks.size() - 1));
+            case "eth_gasPrice":
+                return mapper.valueToTree(GAS_PRICE);
+            case "eth_getTransactionCount":
+                return mapper.valueToTree(hex(transactionCount(params.get(0).asText(), "pending".equals(params.get(1).asText()))));
+            case "eth_sendRawTransaction":
+                return mapper.valueToTree(sendRawTransaction(params.get(0).asText()));
+            case "eth_getBlockByNumber": {
+                String tag = params.get(0).asText();
+                long number = "latest".equals(tag) ? blocks.size() - 1 : Numeric.toBigInt(tag).longValue();
+                return number < 0 || number >= blocks.size() ? mapper.nullNode()
+                    : blockJson(blocks.get((int) number), params.get(1).asBoolean());
+            }
+            case "eth_getTransactionByHash": {
+                ObjectNode transaction = transactions.get(params.get(0).asText());
+                return transaction == null ? mapper.nullNode() : transaction;
+            }
+            case "eth_getTransactionReceipt":
+                return receiptJson(transactions.get(params.get(0).asText()));
+            default:
+                throw new RpcException("method not supported: " + method);
+        }
+    }
+
+    private String sendRawTransaction(String signedTransaction) {
+        SignedRawTransaction decoded = (SignedRawTransaction) TransactionDecoder.decode(signedTransaction);
+        String from;
+        try {
+            from = decoded.getFrom().toLowerCase();
+        } catch (SignatureException e) {
+            throw new RpcException("invalid sender");
+        }
+        long nonce = decoded.getNonce().longValue();
+        String hash = Hash.sha3(signedTransaction);
+
+        if (nonce < minedCounts.getOrDefault(from, 0L)) {
+            throw new RpcException("nonce too low");
+        }
+        for (ObjectNode pooled : pool) {
+            if (pooled.get("from").asText().equals(from) && nonceOf(pooled) == nonce) {
+                throw new RpcException(pooled.get("hash").asText().equals(hash)
+                    ? "already known" : "replacement transaction underpriced");
+            }
+        }
+
+        ObjectNode transaction = mapper.createObjectNode();
+        transaction.put("hash", hash);
+        transaction.put("nonce", hex(nonce));
+        transaction.put("from", from);
+        transaction.put("to", decoded.getTo());
+        transaction.put("input", Numeric.prependHexPrefix(decoded.getData()));
+        transaction.put("value", "0x0");
+        transaction.put("gas", "0x5208");
+        transaction.put("gasPrice", GAS_PRICE);
+        transaction.put("transactionIndex", "0x0");
+        transaction.put("v", "0x1b");
+        transaction.put("r", "0x1");
+        transaction.put("s", "0x1");
+        transaction.putNull("blockHash");
+        transaction.putNull("blockNumber");
+
+        pool.add(transaction);
+        transactions.put(hash, transaction);
+        return hash;
+    }
+
+    /**
+     * Pooled transactions that continue their account's nonce sequence, in nonce order
+     */
+    private List<ObjectNode> executable() {
+        Map<String, Long> next = new HashMap<>(minedCounts);
+        List<ObjectNode> sorted = new ArrayList<>(pool);
+        sorted.sort(Comparator.comparingLong(StubEthNode::nonceOf));
+
+        List<ObjectNode> executable = new ArrayList<>();
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (Iterator<ObjectNode> it = sorted.iterator(); it.hasNext(); ) {
+                ObjectNode transaction = it.next();
+                String from = transaction.get("from").asText();
+                if (nonceOf(transaction) == next.getOrDefault(from, 0L)) {
+                    next.merge(from, 1L, Long::sum);
+                    executable.add(transaction);
+                    it.remove();
+                    progress = true;
+                }
+            }
+        }
+        return executable;
+    }
+
+    private boolean hasPooled(String from, long nonce) {
+        return pool.stream().anyMatch(transaction -> transaction.get("from").asText().equals(from)
+            && nonceOf(transaction) == nonce);
+    }
+
+    private JsonNode blockJson(Block block, boolean fullTransactions) {
+        ObjectNode json = mapper.createObjectNode();
+        json.put("number", hex(block.number));
+        json.put("hash", block.hash);
+        json.put("parentHash", block.parentHash);
+        json.put("timestamp", "0x0");
+        json.put("gasLimit", "0x1c9c380");
+        json.put("gasUsed", "0x0");
+        json.put("miner", "0x" + "0".repeat(40));
+        json.put("difficulty", "0x0");
+        json.put("totalDifficulty", "0x0");
+        json.put("size", "0x0");
+        json.put("nonce", "0x0");
+        json.put("extraData", "0x");
+        json.put("logsBloom", "0x00");
+        json.put("sha3Uncles", "0x00");
+        json.put("stateRoot", "0x00");
+        json.put("transactionsRoot", "0x00");
+        json.put("receiptsRoot", "0x00");
+        json.putArray("uncles");
+
+        ArrayNode list = json.putArray("transactions");
+        for (ObjectNode transaction : block.transactions) {
+            if (fullTransactions) {
+                list.add(transaction);
+            } else {
+                list.add(transaction.get("hash").asText());
+            }
+        }
+        return json;
+    }
+
+    private JsonNode receiptJson(ObjectNode transaction) {
+        if (transaction == null || transaction.get("blockNumber").isNull()) {
+            return mapper.nullNode();
+        }
+        ObjectNode receipt = mapper.createObjectNode();
+        receipt.put("transactionHash", transaction.get("hash").asText());
+        receipt.put("transactionIndex", "0x0");
+        receipt.put("blockHash", transaction.get("blockHash").asText());
+        receipt.put("blockNumber", transaction.get("blockNumber").asText());
+        receipt.put("from", transaction.get("from").asText());
+        receipt.put("to", transaction.get("to").asText());
+        receipt.put("cumulativeGasUsed", "0x5208");
+        receipt.put("gasUsed", "0x5208");
+        receipt.put("status", "0x1");
+        receipt.put("logsBloom", "0x00");
+        receipt.putArray("logs");
+        return receipt;
+    }
+
+    private static long nonceOf(JsonNode transaction) {
+        return Numeric.toBigInt(transaction.get("nonce").asText()).longValue();
+    }
+
+    private static String hex(long value) {
+        return "0x" + Long.toHexString(value);
+    }
+
+    private static final class Block {
+        final long number;
+        final String hash;
+        final String parentHash;
+        final List<ObjectNode> transactions = new ArrayList<>();
+
+        Block(long number, String hash, String parentHash) {
+            this.number = number;
+            this.hash = hash;
+            this.parentHash = parentHash;
+        }
+    }
+
+    private static final class RpcException extends RuntimeException {
+        RpcException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.steganography.util;
+
+import java.util.Random;
+
+/**
+ * Compares the scalar and vector LSB kernels on payloads from a few bytes to 64 KiB. Not run
+ * by the test suite; see "Vector API LSB Kernel" in the README for how to run it.
+ */
+public class LsbKernelBenchmark {
+
+    private static final int[] PAYLOAD_LENGTHS = {8, 16, 31, 63, 100, 1024, 65536};
+    private static final int ROUNDS = 5;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        LsbKernel scalar = new ScalarLsbKernel();
+        LsbKernel vector = LsbKernel.forName("vector");
+
+        // Warm up both kernels on every length before timing any of them
+        for (int length : PAYLOAD_LENGTHS) {
+            time(scalar, length);
+            time(vector, length);
+        }
+
+        System.out.printf("%-8s %14s %14s %10s%n", "bytes", "scalar ns", vector.name() + " ns", "speedup");
+        for (int length : PAYLOAD_LENGTHS) {
+            double scalarNanos = best(scalar, length);
+            double vectorNanos = best(vector, length);
+            System.out.printf("%-8d %14.0f %14.0f %9.2fx%n", length, scalarNanos, vectorNanos, scalarNanos / vectorNanos);
+        }
+        System.out.println("(best of " + ROUNDS + " rounds, ns per embed + extract)");
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static double best(LsbKernel kernel, int length) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, time(kernel, length));
+        }
+        return best;
+    }
+
+    private static double time(LsbKernel kernel, int length) {
+        byte[] payload = new byte[length];
+        byte[] channels = new byte[8 * length];
+        byte[] out = new byte[length];
+        new Random(length).nextBytes(payload);
+
+        int iterations = Math.max(2000, 20_000_000 / length);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            kernel.embed(payload, 0, length, channels, 0);
+            kernel.extract(channels, 0, out, 0, length);
+            sink += out[length - 1];
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+}
@@ -0,0 +1,57 @@
+package com.steganography.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LsbKernelTest {
+
+    private final LsbKernel scalar = new ScalarLsbKernel();
+    private final LsbKernel vector = LsbKernel.forName("vector");
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        Random random = new Random(1);
+        // Covers payloads shorter than a vector, partial vectors and the scalar tail
+        for (int length = 0; length < 300; length++) {
+            for (int round = 0; round < 8; round++) {
+                int payloadOffset = random.nextInt(9);
+                int channelOffset = random.nextInt(17);
+                int outOffset = random.nextInt(9);
+
+                byte[] payload = new byte[payloadOffset + length];
+                random.nextBytes(payload);
+                byte[] vectorChannels = new byte[channelOffset + 8 * length];
+                random.nextBytes(vectorChannels);
+                byte[] scalarChannels = vectorChannels.clone();
+
+                vector.embed(payload, payloadOffset, length, vectorChannels, channelOffset);
+                scalar.embed(payload, payloadOffset, length, scalarChannels, channelOffset);
+                assertThat(vectorChannels).as("embed, %d bytes", length).isEqualTo(scalarChannels);
+
+                byte[] vectorOut = new byte[outOffset + length];
+                random.nextBytes(vectorOut);
+                byte[] scalarOut = vectorOut.clone();
+
+                vector.extract(vectorChannels, channelOffset, vectorOut, outOffset, length);
+                scalar.extract(vectorChannels, channelOffset, scalarOut, outOffset, length);
+                assertThat(vectorOut).as("extract, %d bytes", length).isEqualTo(scalarOut);
+            }
+        }
+    }
+
+    @Test
+    void extractReturnsEmbeddedPayload() {
+        byte[] payload = "payload that spans several vectors and a scalar tail".getBytes();
+        byte[] channels = new byte[8 * payload.length];
+        new Random(2).nextBytes(channels);
+
+        vector.embed(payload, 0, payload.length, channels, 0);
+        byte[] out = new byte[payload.length];
+        vector.extract(channels, 0, out, 0, payload.length);
+
+        assertThat(out).isEqualTo(payload);
+    }
+}
@@ -0,0 +1,78 @@
+package com.steganography.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Compares the parallel PNG encoder with the JDK ImageIO writer on a photo-sized image, for
+ * speed and output size. Not run by the test suite; see "Hide Text" in the README for how to
+ * run it. Arguments: image width and height (default 3000 x 2000).
+ */
+public class PngEncoderBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        BufferedImage image = PngEncoderTest.image(width, height, BufferedImage.TYPE_INT_RGB, 7);
+
+        System.out.printf("%d x %d RGB, %d CPUs, best of %d rounds%n%n", width, height, cpus, ROUNDS);
+        System.out.printf("%-10s %8s %-9s %6s %9s %9s%n", "encoder", "threads", "filter", "level", "ms", "KB");
+
+        ImageIoPngEncoder imageIo = new ImageIoPngEncoder();
+        double imageIoMillis = 0;
+        for (int level : new int[] {1, 6, 9}) {
+            double millis = run("imageio", imageIo, 1, image, new PngEncodeOptions(level, PngEncodeOptions.Filter.ADAPTIVE));
+            if (level == PngEncodeOptions.DEFAULT_COMPRESSION_LEVEL) {
+                imageIoMillis = millis;
+            }
+        }
+
+        double singleThreadMillis = 0;
+        for (int threads = 1; threads <= cpus; threads *= 2) {
+            ParallelPngEncoder parallel = new ParallelPngEncoder(threads, 256);
+            try {
+                double millis = run("parallel", parallel, threads, image, PngEncodeOptions.defaults());
+                if (threads == 1) {
+                    singleThreadMillis = millis;
+                }
+            } finally {
+                parallel.shutdown();
+            }
+        }
+
+        ParallelPngEncoder parallel = new ParallelPngEncoder(cpus, 256);
+        try {
+            for (PngEncodeOptions.Filter filter : PngEncodeOptions.Filter.values()) {
+                run("parallel", parallel, cpus, image, new PngEncodeOptions(PngEncodeOptions.DEFAULT_COMPRESSION_LEVEL, filter));
+            }
+            for (int level : new int[] {1, 9}) {
+                run("parallel", parallel, cpus, image, new PngEncodeOptions(level, PngEncodeOptions.Filter.ADAPTIVE));
+            }
+        } finally {
+            parallel.shutdown();
+        }
+
+        // The chunks are independent, so with one thread per CPU the parallel encoder scales
+        // close to linearly; it beats ImageIO once it has more CPUs than its single-thread slowdown
+        double slowdown = singleThreadMillis / imageIoMillis;
+        System.out.printf("%nparallel on one thread is %.2fx ImageIO at level %d; break-even at about %d CPUs%n",
+            slowdown, PngEncodeOptions.DEFAULT_COMPRESSION_LEVEL, (int) Math.floor(slowdown) + 1);
+    }
+
+    private static double run(String name, PngEncoder encoder, int threads, BufferedImage image,
+                              PngEncodeOptions options) throws IOException {
+        byte[] png = encoder.encode(image, options); // warm-up
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            png = encoder.encode(image, options);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        System.out.printf("%-10s %8d %-9s %6d %9.0f %9d%n", name, threads, options.getFilter(),
+            options.getCompressionLevel(), best, png.length / 1024);
+        return best;
+    }
+}
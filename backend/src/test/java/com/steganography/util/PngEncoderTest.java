@@ -0,0 +1,96 @@
+package com.steganography.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PngEncoderTest {
+
+    private static final int[] IMAGE_TYPES = {
+        BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_4BYTE_ABGR
+    };
+    private static final int[] LEVELS = {0, 1, 6, 9};
+
+    // 1 KiB chunks, so every image below is deflated as several chunks
+    private final ParallelPngEncoder parallel = new ParallelPngEncoder(2, 1);
+
+    @AfterEach
+    void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Test
+    void parallelEncoderRoundTripsEveryFilterAndLevel() throws IOException {
+        for (int type : IMAGE_TYPES) {
+            for (PngEncodeOptions.Filter filter : PngEncodeOptions.Filter.values()) {
+                for (int level : LEVELS) {
+                    BufferedImage image = image(157, 61, type, level);
+                    byte[] png = parallel.encode(image, new PngEncodeOptions(level, filter));
+                    assertSamePixels(image, png, "type " + type + ", " + filter + ", level " + level);
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelEncoderRoundTripsSinglePixelAndSingleRow() throws IOException {
+        for (int type : IMAGE_TYPES) {
+            BufferedImage pixel = image(1, 1, type, 1);
+            assertSamePixels(pixel, parallel.encode(pixel, PngEncodeOptions.defaults()), "1x1, type " + type);
+
+            BufferedImage row = image(4000, 1, type, 2);
+            assertSamePixels(row, parallel.encode(row, PngEncodeOptions.defaults()), "4000x1, type " + type);
+        }
+    }
+
+    @Test
+    void imageIoEncoderRoundTripsEveryLevel() throws IOException {
+        ImageIoPngEncoder imageIo = new ImageIoPngEncoder();
+        for (int type : IMAGE_TYPES) {
+            for (int level : LEVELS) {
+                BufferedImage image = image(157, 61, type, level);
+                byte[] png = imageIo.encode(image, new PngEncodeOptions(level, PngEncodeOptions.Filter.ADAPTIVE));
+                assertSamePixels(image, png, "type " + type + ", level " + level);
+            }
+        }
+    }
+
+    /**
+     * Gradients with noise and random alpha, so every filter type gets chosen somewhere
+     */
+    static BufferedImage image(int width, int height, int type, long seed) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = x * 255 / width;
+                int green = y * 255 / Math.max(height, 1);
+                int noise = random.nextInt(8);
+                int alpha = random.nextInt(256);
+                image.setRGB(x, y, alpha << 24 | ((red + noise) & 0xFF) << 16 | ((green + noise) & 0xFF) << 8 | (red ^ green));
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, byte[] png, String description) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(decoded).as(description).isNotNull();
+        assertThat(decoded.getColorModel().hasAlpha()).as(description).isEqualTo(expected.getColorModel().hasAlpha());
+
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        assertThat(decoded.getWidth()).as(description).isEqualTo(width);
+        assertThat(decoded.getHeight()).as(description).isEqualTo(height);
+        assertThat(decoded.getRGB(0, 0, width, height, null, 0, width))
+            .as(description)
+            .isEqualTo(expected.getRGB(0, 0, width, height, null, 0, width));
+    }
+}